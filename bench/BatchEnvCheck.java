@@ -0,0 +1,106 @@
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+// Checks BatchEnv's two promises:
+//   - determinism: a batch stepped on a ForkJoinPool produces the same
+//     observations, rewards and done flags, bit for bit, as one stepped on
+//     the calling thread, and each world follows its seed schedule through
+//     auto-resets: plain GameWorlds on seeds i, i + size, ... given the same
+//     actions end their episodes on the same steps with the same rewards;
+//   - no allocation: after a pass that grows every world's pools to what its
+//     episodes need, the same pass again allocates nothing on this thread.
+// Usage: BatchEnvCheck [worlds] [steps]
+public class BatchEnvCheck {
+    private static final long SEED = 1;
+    private static final long MAX_TICKS = 1_500; // Short, so timeouts and deaths both reset worlds
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+        int parallelism = Math.max(2, Runtime.getRuntime().availableProcessors());
+        long mismatches = 0, referenceMismatches = 0, episodes = 0;
+
+        BatchEnv serial = new BatchEnv(size, MAX_TICKS, 1);
+        BatchEnv parallel = new BatchEnv(size, MAX_TICKS, parallelism);
+        Batch a = new Batch(size), b = new Batch(size);
+        GameWorld[] reference = new GameWorld[size];
+        long[] referenceSeeds = new long[size];
+        for (int i = 0; i < size; i++) {
+            referenceSeeds[i] = SEED + i;
+            reference[i] = new GameWorld(referenceSeeds[i]);
+        }
+
+        serial.reset(SEED, a.observations);
+        parallel.reset(SEED, b.observations);
+        for (int step = 0; step < steps; step++) {
+            a.decide();
+            System.arraycopy(a.actions, 0, b.actions, 0, size);
+            serial.step(a.actions, a.observations, a.rewards, a.dones);
+            parallel.step(b.actions, b.observations, b.rewards, b.dones);
+            if (!Arrays.equals(a.observations, b.observations) || !Arrays.equals(a.rewards, b.rewards)
+                    || !Arrays.equals(a.dones, b.dones)) {
+                mismatches++;
+            }
+
+            for (int i = 0; i < size; i++) {
+                GameWorld world = reference[i];
+                int score = world.getScore();
+                world.step(a.actions[i] != 0);
+                boolean dead = world.getState() != GameWorld.GameState.RUNNING;
+                boolean done = dead || world.getTick() >= MAX_TICKS;
+                float reward = dead ? BatchEnv.DEATH_REWARD : world.getScore() - score;
+                if (done != (a.dones[i] != 0) || reward != a.rewards[i]) {
+                    referenceMismatches++;
+                }
+                if (done) {
+                    episodes++;
+                    referenceSeeds[i] += size;
+                    world.reset(referenceSeeds[i]);
+                }
+            }
+        }
+        parallel.close();
+        System.out.printf("%d worlds x %d steps, %d episodes: %d serial/parallel mismatches, %d reference mismatches%n",
+            size, steps, episodes, mismatches, referenceMismatches);
+
+        // The same pass again: every world replays episodes it has already grown its pools for
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        serial.reset(SEED, a.observations);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int step = 0; step < steps; step++) {
+            a.decide();
+            serial.step(a.actions, a.observations, a.rewards, a.dones);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        serial.close();
+        System.out.printf("Second pass: %d bytes allocated over %d world steps%n", allocated, (long) size * steps);
+
+        if (mismatches != 0 || referenceMismatches != 0 || allocated != 0) {
+            System.exit(1);
+        }
+    }
+
+    private static final class Batch {
+        final byte[] actions;
+        final float[] observations;
+        final float[] rewards;
+        final byte[] dones;
+
+        Batch(int size) {
+            actions = new byte[size];
+            observations = new float[size * BatchEnv.OBSERVATION_SIZE];
+            rewards = new float[size];
+            dones = new byte[size];
+        }
+
+        // Jumps when the player sinks towards the bottom of the next gap, as the BatchEnv bench does
+        void decide() {
+            for (int i = 0; i < actions.length; i++) {
+                int row = i * BatchEnv.OBSERVATION_SIZE;
+                actions[i] = (byte) (observations[row] + 0.05f > observations[row + 6] - 0.1f ? 1 : 0);
+            }
+        }
+    }
+}
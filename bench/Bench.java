@@ -0,0 +1,93 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+// Minimal JMH-style harness: timed warmup and measurement iterations,
+// untimed per-invocation setup, a result sink against dead-code
+// elimination, and per-thread allocation accounting.
+public class Bench {
+    private static volatile long sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final List<String> report = new ArrayList<>();
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public abstract static class Case {
+        final String name;
+        final String params;
+
+        protected Case(String name, String params) {
+            this.name = name;
+            this.params = params;
+        }
+
+        // Untimed, runs before every invocation
+        protected void setup() {}
+
+        // Timed; returns the number of operations performed
+        protected abstract int invoke();
+    }
+
+    public Bench(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+    }
+
+    public static void consume(long value) {
+        sink += value;
+    }
+
+    public static void consume(boolean value) {
+        sink += value ? 1 : 0;
+    }
+
+    public void run(Case c) {
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(c, threadId);
+        }
+        double[] nanosPerOp = new double[measurementIterations];
+        double bytes = 0;
+        for (int i = 0; i < measurementIterations; i++) {
+            double[] result = iteration(c, threadId);
+            nanosPerOp[i] = result[0];
+            bytes += result[1];
+        }
+
+        double mean = 0;
+        for (double value : nanosPerOp) mean += value;
+        mean /= nanosPerOp.length;
+        double variance = 0;
+        for (double value : nanosPerOp) variance += (value - mean) * (value - mean);
+        double error = nanosPerOp.length > 1 ? Math.sqrt(variance / (nanosPerOp.length - 1)) : 0;
+
+        String line = String.format("%-26s %-28s %14.1f +- %9.1f ns/op %10.1f B/op",
+            c.name, c.params, mean, error, bytes / measurementIterations);
+        System.out.println(line);
+        report.add(line);
+    }
+
+    // Returns {ns/op, bytes/op} for one iteration
+    private double[] iteration(Case c, long threadId) {
+        long spent = 0;
+        long ops = 0;
+        long allocated = 0;
+        while (spent < iterationNanos) {
+            c.setup();
+            long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            ops += c.invoke();
+            spent += System.nanoTime() - start;
+            allocated += threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        }
+        return new double[] {spent / (double) ops, allocated / (double) ops};
+    }
+
+    public List<String> getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,305 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+// Hot-path benchmarks. Usage: Benchmarks [name-filter] [-wi n] [-i n] [-t millis]
+public class Benchmarks {
+    private static final int[] OBSTACLE_COUNTS = {8, 64, 256, 1024};
+    private static final int STEPS_PER_INVOCATION = 50; // Short enough that nothing reaches the player
+
+    public static void main(String[] args) {
+        String filter = "";
+        int warmup = 5, iterations = 10;
+        long millis = 200;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-wi" -> warmup = Integer.parseInt(args[++i]);
+                case "-i" -> iterations = Integer.parseInt(args[++i]);
+                case "-t" -> millis = Long.parseLong(args[++i]);
+                default -> filter = args[i];
+            }
+        }
+
+        Bench bench = new Bench(warmup, iterations, millis);
+        for (Bench.Case c : cases()) {
+            if (c.name.contains(filter)) {
+                bench.run(c);
+            }
+        }
+    }
+
+    private static Bench.Case[] cases() {
+        return new Bench.Case[] {
+            step(8, 5), step(64, 50), step(256, 200),
+            enemyUpdate(OBSTACLE_COUNTS[0]), enemyUpdate(OBSTACLE_COUNTS[1]),
+            enemyUpdate(OBSTACLE_COUNTS[2]), enemyUpdate(OBSTACLE_COUNTS[3]),
+            enemyBatch(OBSTACLE_COUNTS[0], 100), enemyBatch(OBSTACLE_COUNTS[1], 100),
+            enemyBatch(OBSTACLE_COUNTS[0], 1000), enemyBatch(OBSTACLE_COUNTS[1], 1000),
+            pathBlocked(OBSTACLE_COUNTS[0]), pathBlocked(OBSTACLE_COUNTS[1]),
+            pathBlocked(OBSTACLE_COUNTS[2]), pathBlocked(OBSTACLE_COUNTS[3]),
+            pathBlockedSampled(OBSTACLE_COUNTS[0]), pathBlockedSampled(OBSTACLE_COUNTS[1]),
+            pathBlockedSampled(OBSTACLE_COUNTS[2]), pathBlockedSampled(OBSTACLE_COUNTS[3]),
+            collisions(8, 5), collisions(64, 50), collisions(256, 200),
+            render(8, 5), render(64, 50),
+            snapshot(8, 5), snapshot(64, 50), snapshot(256, 200),
+            envStep(1000),
+            levelChunk()
+        };
+    }
+
+    // Full GameWorld.step on a crowded world, ops = ticks
+    private static Bench.Case step(int obstacles, int enemies) {
+        return new Bench.Case("GameWorld.step", params(obstacles, enemies)) {
+            final GameWorld world = new GameWorld(1);
+            long seed;
+
+            @Override
+            protected void setup() {
+                Scenario.populate(world, ++seed, obstacles, enemies, 2);
+            }
+
+            @Override
+            protected int invoke() {
+                for (int i = 0; i < STEPS_PER_INVOCATION; i++) {
+                    world.step(i % 12 == 0);
+                }
+                Bench.consume(world.getScore());
+                return STEPS_PER_INVOCATION;
+            }
+        };
+    }
+
+    // One Enemy.update per enemy, ops = enemy updates
+    private static Bench.Case enemyUpdate(int obstacles) {
+        return new Bench.Case("Enemy.update", params(obstacles, 100)) {
+            final GameWorld world = new GameWorld(2);
+            long seed;
+
+            @Override
+            protected void setup() {
+                Scenario.populate(world, ++seed, obstacles, 100, 0);
+            }
+
+            @Override
+            protected int invoke() {
+                EntityStore<Enemy> enemies = world.getEnemies();
+                Player player = world.getPlayer();
+                SpatialGrid<Obstacle> grid = world.getObstacleGrid();
+                for (int i = 0; i < enemies.size(); i++) {
+                    enemies.get(i).update(player, grid);
+                }
+                Bench.consume(Double.doubleToLongBits(enemies.get(0).getY()));
+                return enemies.size();
+            }
+        };
+    }
+
+    // EnemyBatch over the same worlds as enemyUpdate, ops = enemy updates
+    private static Bench.Case enemyBatch(int obstacles, int enemies) {
+        EnemyBatch batch = EnemyBatch.create();
+        return new Bench.Case("EnemyBatch.update", params(obstacles, enemies) + " " + batch.getName()) {
+            final GameWorld world = new GameWorld(2);
+            long seed;
+
+            @Override
+            protected void setup() {
+                Scenario.populate(world, ++seed, obstacles, enemies, 0);
+            }
+
+            @Override
+            protected int invoke() {
+                EntityStore<Enemy> store = world.getEnemies();
+                batch.update(store, world.getPlayer(), world.getObstacleGrid());
+                Bench.consume(Double.doubleToLongBits(store.get(0).getY()));
+                return store.size();
+            }
+        };
+    }
+
+    // Swept line of sight from hunters to the player, ops = queries
+    private static Bench.Case pathBlocked(int obstacles) {
+        return new Bench.Case("Enemy.isPathBlocked", params(obstacles, 100)) {
+            final GameWorld world = new GameWorld(3);
+            long seed;
+
+            @Override
+            protected void setup() {
+                if (seed++ == 0) {
+                    Scenario.populate(world, seed, obstacles, 100, 0);
+                }
+            }
+
+            @Override
+            protected int invoke() {
+                EntityStore<Enemy> enemies = world.getEnemies();
+                Player player = world.getPlayer();
+                SpatialGrid<Obstacle> grid = world.getObstacleGrid();
+                int blocked = 0;
+                for (int i = 0; i < enemies.size(); i++) {
+                    Enemy enemy = enemies.get(i);
+                    if (enemy.isPathBlocked(player, grid, enemy.getX(), enemy.getY(), enemy.getWidth())) {
+                        blocked++;
+                    }
+                }
+                Bench.consume(blocked);
+                return enemies.size();
+            }
+        };
+    }
+
+    // The original nine-sample line of sight, as a baseline for the swept test, ops = queries
+    private static Bench.Case pathBlockedSampled(int obstacles) {
+        return new Bench.Case("Enemy.isPathBlockedSampled", params(obstacles, 100)) {
+            final GameWorld world = new GameWorld(3);
+            long seed;
+
+            @Override
+            protected void setup() {
+                if (seed++ == 0) {
+                    Scenario.populate(world, seed, obstacles, 100, 0);
+                }
+            }
+
+            @Override
+            protected int invoke() {
+                EntityStore<Enemy> enemies = world.getEnemies();
+                Player player = world.getPlayer();
+                SpatialGrid<Obstacle> grid = world.getObstacleGrid();
+                int blocked = 0;
+                for (int i = 0; i < enemies.size(); i++) {
+                    Enemy enemy = enemies.get(i);
+                    if (enemy.isPathBlockedSampled(player, grid, enemy.getX(), enemy.getY(), enemy.getWidth())) {
+                        blocked++;
+                    }
+                }
+                Bench.consume(blocked);
+                return enemies.size();
+            }
+        };
+    }
+
+    // Player against every entity kind, ops = calls
+    private static Bench.Case collisions(int obstacles, int enemies) {
+        return new Bench.Case("GameWorld.checkCollisions", params(obstacles, enemies)) {
+            final GameWorld world = new GameWorld(4);
+            long seed;
+
+            @Override
+            protected void setup() {
+                if (seed++ == 0) {
+                    Scenario.populate(world, seed, obstacles, enemies, 2);
+                }
+            }
+
+            @Override
+            protected int invoke() {
+                for (int i = 0; i < 100; i++) {
+                    world.checkCollisions();
+                }
+                Bench.consume(world.getScore());
+                return 100;
+            }
+        };
+    }
+
+    // WorldRenderer into an offscreen image, ops = frames
+    private static Bench.Case render(int obstacles, int enemies) {
+        return new Bench.Case("WorldRenderer.render", params(obstacles, enemies)) {
+            final GameWorld world = new GameWorld(5);
+            final WorldRenderer renderer = new WorldRenderer();
+            final BufferedImage image = new BufferedImage(GameWorld.WIDTH, GameWorld.HEIGHT, BufferedImage.TYPE_INT_RGB);
+            long seed;
+
+            @Override
+            protected void setup() {
+                if (seed++ == 0) {
+                    Scenario.populate(world, seed, obstacles, enemies, 2);
+                }
+            }
+
+            @Override
+            protected int invoke() {
+                Graphics2D g2d = image.createGraphics();
+                renderer.render(g2d, world, 0.5);
+                g2d.dispose();
+                Bench.consume(image.getRGB(400, 300));
+                return 1;
+            }
+        };
+    }
+
+    // GameWorld.save into a reused buffer and restore from it, ops = round trips
+    private static Bench.Case snapshot(int obstacles, int enemies) {
+        return new Bench.Case("GameWorld.snapshot", params(obstacles, enemies)) {
+            final GameWorld world = new GameWorld(6);
+            java.nio.ByteBuffer buffer;
+            long seed;
+
+            @Override
+            protected void setup() {
+                Scenario.populate(world, ++seed, obstacles, enemies, 2);
+                buffer = java.nio.ByteBuffer.allocate(world.snapshotSize());
+            }
+
+            @Override
+            protected int invoke() {
+                buffer.clear();
+                world.save(buffer);
+                buffer.flip();
+                world.restore(buffer);
+                Bench.consume(world.getTick());
+                return 1;
+            }
+        };
+    }
+
+    // One BatchEnv.step over many worlds with a gap-following policy, ops = world steps
+    private static Bench.Case envStep(int worlds) {
+        return new Bench.Case("BatchEnv.step", "worlds=" + worlds) {
+            final BatchEnv env = new BatchEnv(worlds, 10_000, 1);
+            final float[] observations = new float[worlds * BatchEnv.OBSERVATION_SIZE];
+            final float[] rewards = new float[worlds];
+            final byte[] dones = new byte[worlds];
+            final byte[] actions = new byte[worlds];
+            boolean started;
+
+            @Override
+            protected void setup() {
+                if (!started) {
+                    env.reset(1, observations);
+                    started = true;
+                }
+                for (int i = 0; i < worlds; i++) {
+                    int row = i * BatchEnv.OBSERVATION_SIZE;
+                    // Jump when the player's bottom sinks towards the bottom of the next gap
+                    actions[i] = (byte) (observations[row] + 0.05f > observations[row + 6] - 0.1f ? 1 : 0);
+                }
+            }
+
+            @Override
+            protected int invoke() {
+                env.step(actions, observations, rewards, dones);
+                Bench.consume(dones[0]);
+                return worlds;
+            }
+        };
+    }
+
+    // One level chunk across the difficulty ramp, ops = chunks
+    private static Bench.Case levelChunk() {
+        return new Bench.Case("LevelGenerator.generate", "chunk=" + LevelGenerator.CHUNK_TICKS + " ticks") {
+            final LevelGenerator.Chunk chunk = new LevelGenerator.Chunk();
+            long index;
+
+            @Override
+            protected int invoke() {
+                LevelGenerator.generate(index, index++ % 16, chunk);
+                Bench.consume(chunk.count);
+                return 1;
+            }
+        };
+    }
+
+    private static String params(int obstacles, int enemies) {
+        return "obstacles=" + obstacles + " enemies=" + enemies;
+    }
+}
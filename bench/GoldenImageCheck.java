@@ -0,0 +1,181 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+// Renders seeded worlds offscreen, in both the cached and the immediate
+// renderer, and compares them against the PNGs in bench/golden. Pixels are
+// compared in YIQ space weighted the way the eye is (as pixelmatch does), so
+// antialiasing noise stays under the threshold while a moved or recoloured
+// shape doesn't. A case fails when more than a small fraction of its pixels
+// differ; its diff image, changed pixels in red over a faded golden, goes to
+// target/golden-diff. Cases render in parallel.
+// Usage: GoldenImageCheck [--update] [--threshold 0.1] [--max-fraction 0.0005]
+// Goldens depend on the platform's fonts; regenerate them with --update after
+// an intended visual change or when moving to a different JDK.
+public class GoldenImageCheck {
+    private static final Path GOLDEN = Paths.get("bench", "golden");
+    private static final Path DIFF = Paths.get("target", "golden-diff");
+    private static final double MAX_DELTA = 35215; // YIQ delta between black and white
+
+    private static final class Case {
+        final String name;
+        final long seed;
+        final int ticks;
+        final boolean immediate;
+        final boolean crowded;
+
+        Case(String name, long seed, int ticks, boolean immediate, boolean crowded) {
+            this.name = name + (immediate ? "-immediate" : "-cached");
+            this.seed = seed;
+            this.ticks = ticks;
+            this.immediate = immediate;
+            this.crowded = crowded;
+        }
+
+        BufferedImage render() {
+            GameWorld world = new GameWorld(seed);
+            if (crowded) {
+                Scenario.populate(world, seed, 12, 10, 2);
+                for (int i = 0; i < ticks; i++) {
+                    world.step(i % 12 == 0);
+                }
+            } else {
+                // A pilot of 0 never jumps, which ends the run for the game over frame
+                Pilot pilot = ticks > 0 ? new GapPilot(seed) : w -> false;
+                int limit = ticks > 0 ? ticks : 10_000;
+                while (world.getTick() < limit && world.getState() == GameWorld.GameState.RUNNING) {
+                    world.step(pilot.shouldJump(world));
+                }
+            }
+            BufferedImage image = new BufferedImage(GameWorld.WIDTH, GameWorld.HEIGHT, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = image.createGraphics();
+            WorldRenderer renderer = new WorldRenderer();
+            renderer.setCached(!immediate);
+            renderer.render(g2d, world, 0.5);
+            g2d.dispose();
+            return image;
+        }
+    }
+
+    private static final class Result {
+        final Case c;
+        final String status;
+        final long differing;
+        final double worst;
+
+        Result(Case c, String status, long differing, double worst) {
+            this.c = c;
+            this.status = status;
+            this.differing = differing;
+            this.worst = worst;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean update = false;
+        double threshold = 0.1, maxFraction = 0.0005;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--update" -> update = true;
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                case "--max-fraction" -> maxFraction = Double.parseDouble(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument " + args[i]);
+            }
+        }
+        Files.createDirectories(update ? GOLDEN : DIFF);
+
+        List<Case> cases = new ArrayList<>();
+        for (boolean immediate : new boolean[] {false, true}) {
+            for (long seed = 1; seed <= 3; seed++) {
+                cases.add(new Case("seed" + seed + "-tick240", seed, 240, immediate, false));
+                cases.add(new Case("seed" + seed + "-tick600", seed, 600, immediate, false));
+            }
+            cases.add(new Case("crowded", 9, 5, immediate, true));
+            cases.add(new Case("game-over", 4, 0, immediate, false));
+        }
+
+        boolean updating = update;
+        double limit = MAX_DELTA * threshold * threshold;
+        long allowed = (long) (maxFraction * GameWorld.WIDTH * GameWorld.HEIGHT);
+        long start = System.nanoTime();
+        List<Result> results = cases.parallelStream().map(c -> check(c, updating, limit, allowed)).toList();
+
+        int failures = 0;
+        for (Result result : results) {
+            System.out.printf("%-28s %-8s %7d px over threshold, worst %.3f%n",
+                result.c.name, result.status, result.differing, Math.sqrt(result.worst / MAX_DELTA));
+            if (result.status.equals("FAIL") || result.status.equals("MISSING")) failures++;
+        }
+        System.out.printf("%d cases, %d failed (%.2f s)%n", results.size(), failures, (System.nanoTime() - start) / 1e9);
+        if (failures > 0) {
+            System.out.println("Diffs are in " + DIFF + "; rerun with --update if the change is intended");
+            System.exit(1);
+        }
+    }
+
+    private static Result check(Case c, boolean update, double limit, long allowed) {
+        try {
+            BufferedImage actual = c.render();
+            File golden = GOLDEN.resolve(c.name + ".png").toFile();
+            if (update) {
+                ImageIO.write(actual, "png", golden);
+                return new Result(c, "UPDATED", 0, 0);
+            }
+            if (!golden.isFile()) {
+                return new Result(c, "MISSING", 0, 0);
+            }
+            BufferedImage expected = ImageIO.read(golden);
+            if (expected.getWidth() != actual.getWidth() || expected.getHeight() != actual.getHeight()) {
+                return new Result(c, "FAIL", (long) actual.getWidth() * actual.getHeight(), MAX_DELTA);
+            }
+
+            BufferedImage diff = new BufferedImage(actual.getWidth(), actual.getHeight(), BufferedImage.TYPE_INT_RGB);
+            long differing = 0;
+            double worst = 0;
+            for (int y = 0; y < actual.getHeight(); y++) {
+                for (int x = 0; x < actual.getWidth(); x++) {
+                    int a = expected.getRGB(x, y), b = actual.getRGB(x, y);
+                    double delta = a == b ? 0 : delta(a, b);
+                    worst = Math.max(worst, delta);
+                    if (delta > limit) {
+                        differing++;
+                        diff.setRGB(x, y, 0xFF0000);
+                    } else {
+                        int gray = 170 + luma(a) / 3; // Faded golden for context
+                        diff.setRGB(x, y, gray << 16 | gray << 8 | gray);
+                    }
+                }
+            }
+            boolean failed = differing > allowed;
+            if (failed) {
+                ImageIO.write(diff, "png", DIFF.resolve(c.name + "-diff.png").toFile());
+                ImageIO.write(actual, "png", DIFF.resolve(c.name + "-actual.png").toFile());
+            }
+            return new Result(c, failed ? "FAIL" : "OK", differing, worst);
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(c.name, e);
+        }
+    }
+
+    // Squared YIQ distance, weighted as in Kotsarenko and Ramos' perceptual metric
+    static double delta(int a, int b) {
+        int dr = (a >> 16 & 0xFF) - (b >> 16 & 0xFF);
+        int dg = (a >> 8 & 0xFF) - (b >> 8 & 0xFF);
+        int db = (a & 0xFF) - (b & 0xFF);
+        double y = dr * 0.29889531 + dg * 0.58662247 + db * 0.11448223;
+        double i = dr * 0.59597799 - dg * 0.27417610 - db * 0.32180189;
+        double q = dr * 0.21147017 - dg * 0.52261711 + db * 0.31114694;
+        return 0.5053 * y * y + 0.299 * i * i + 0.1957 * q * q;
+    }
+
+    private static int luma(int rgb) {
+        return ((rgb >> 16 & 0xFF) * 299 + (rgb >> 8 & 0xFF) * 587 + (rgb & 0xFF) * 114) / 1000;
+    }
+}
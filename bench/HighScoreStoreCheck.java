@@ -0,0 +1,206 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Recovery scenarios for HighScoreStore in a scratch directory. Each one
+// damages the files the way a crash or a stray write would, reopens the store
+// and compares its leaderboard with the expected top scores:
+//   - a clean reopen;
+//   - a torn record at the end of the log, which must be cut off;
+//   - an unindexed last record whose CRC doesn't match, which must be dropped;
+//   - a scribbled index, which must be rebuilt from the log;
+//   - a stale index from before the last batch, whose missing records must
+//     be folded in;
+//   - an index covering more records than the log holds;
+//   - a second store on the same directory, in this JVM and in another
+//     process, which must fail while the first holds the log;
+//   - submissions racing close(), which must all be written or refused, so
+//     flush() afterwards returns.
+// Usage: HighScoreStoreCheck
+public class HighScoreStoreCheck {
+    private static final int CAPACITY = 10;
+    private static final int RECORD_SIZE = 32;
+    private static final int RACE_ROUNDS = 200;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("--open")) {
+            // Child process for the lock scenario: exits 0 only if the store refuses to open
+            try {
+                new HighScoreStore(Path.of(args[1]), CAPACITY).close();
+                System.exit(1);
+            } catch (IOException e) {
+                System.exit(0);
+            }
+        }
+
+        Path directory = Files.createTempDirectory("neonrunner-scores");
+        try {
+            List<int[]> expected = new ArrayList<>(); // {score, seed}
+            submit(directory, expected, 0, 40);
+            check("clean reopen", directory, expected);
+
+            appendBytes(directory.resolve("scores.log"), new byte[13]);
+            check("torn tail", directory, expected);
+            expect("torn tail truncated", Files.size(directory.resolve("scores.log")), 40L * RECORD_SIZE);
+
+            // Crash between the append and the index update: only the log has the last record
+            Path saved = directory.resolve("scores.idx.saved");
+            Files.copy(directory.resolve("scores.idx"), saved);
+            submit(directory, expected, 40, 1);
+            Files.copy(saved, directory.resolve("scores.idx"), StandardCopyOption.REPLACE_EXISTING);
+            flipByte(directory.resolve("scores.log"), 41L * RECORD_SIZE - 6);
+            expected.remove(expected.size() - 1);
+            check("bad CRC on the last record", directory, expected);
+            expect("bad record truncated", Files.size(directory.resolve("scores.log")), 40L * RECORD_SIZE);
+
+            flipByte(directory.resolve("scores.idx"), 40);
+            check("corrupt index", directory, expected);
+
+            Files.copy(directory.resolve("scores.idx"), saved, StandardCopyOption.REPLACE_EXISTING);
+            submit(directory, expected, 41, 30);
+            Files.copy(saved, directory.resolve("scores.idx"), StandardCopyOption.REPLACE_EXISTING);
+            check("stale index", directory, expected);
+
+            try (RandomAccessFile file = new RandomAccessFile(directory.resolve("scores.log").toFile(), "rw")) {
+                file.setLength(20L * RECORD_SIZE);
+            }
+            expected.subList(20, expected.size()).clear();
+            check("index ahead of the log", directory, expected);
+
+            HighScoreStore first = new HighScoreStore(directory, CAPACITY);
+            try {
+                try {
+                    new HighScoreStore(directory, CAPACITY).close();
+                    expect("second store in this JVM refused", 0, 1);
+                } catch (IOException e) {
+                    // Expected
+                }
+                Process child = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"), "HighScoreStoreCheck", "--open", directory.toString())
+                    .inheritIO().start();
+                expect("store in another process refused", child.waitFor(), 0);
+            } finally {
+                first.close();
+            }
+
+            raceClose(directory);
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Submits count scores with seeds from..from + count and waits until they are on disk
+    private static void submit(Path directory, List<int[]> expected, int from, int count) throws Exception {
+        try (HighScoreStore store = new HighScoreStore(directory, CAPACITY)) {
+            for (int seed = from; seed < from + count; seed++) {
+                int score = (seed * 7919) % 101; // Plenty of ties
+                if (!store.submit(score, seed, seed * 60L)) {
+                    throw new IllegalStateException("Submission dropped");
+                }
+                expected.add(new int[] {score, seed});
+            }
+            store.flush();
+        }
+    }
+
+    // Submits from another thread while the store closes; every accepted score
+    // must reach the log and flush() must return, however the two interleave
+    private static void raceClose(Path directory) throws Exception {
+        long hung = 0, lost = 0;
+        for (int round = 0; round < RACE_ROUNDS; round++) {
+            long logSize = Files.size(directory.resolve("scores.log"));
+            HighScoreStore store = new HighScoreStore(directory, CAPACITY);
+            long[] accepted = {0};
+            Thread submitter = new Thread(() -> {
+                for (int seed = 0; seed < 1_000; seed++) {
+                    if (store.submit(seed % 101, seed, seed)) {
+                        accepted[0]++;
+                    }
+                    if (seed % 4 == 0) {
+                        Thread.yield(); // Lets close() land mid-stream on one core too
+                    }
+                }
+            }, "submitter");
+            submitter.start();
+            Thread.yield();
+            store.close();
+            submitter.join();
+
+            Thread flusher = new Thread(() -> {
+                try {
+                    store.flush();
+                } catch (InterruptedException e) {
+                    // Reported as hung below
+                }
+            }, "flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+            flusher.join(5_000);
+            if (flusher.isAlive()) {
+                hung++;
+                flusher.interrupt();
+            }
+            if (Files.size(directory.resolve("scores.log")) != logSize + accepted[0] * RECORD_SIZE) {
+                lost++;
+            }
+        }
+        System.out.printf("%-28s %s (%d rounds)%n", "submit racing close", hung + lost == 0 ? "OK" : "FAIL", RACE_ROUNDS);
+        expect("flush() hung after close", hung, 0);
+        expect("rounds that lost accepted scores", lost, 0);
+    }
+
+    private static void check(String scenario, Path directory, List<int[]> submitted) throws IOException {
+        List<int[]> top = new ArrayList<>(submitted);
+        top.sort(Comparator.comparingInt((int[] entry) -> -entry[0])); // Stable: ties stay in submission order
+        top = top.subList(0, Math.min(CAPACITY, top.size()));
+
+        try (HighScoreStore store = new HighScoreStore(directory, CAPACITY)) {
+            List<HighScoreStore.Entry> actual = store.getTop();
+            boolean same = actual.size() == top.size();
+            for (int i = 0; same && i < top.size(); i++) {
+                same = actual.get(i).getScore() == top.get(i)[0] && actual.get(i).getSeed() == top.get(i)[1];
+            }
+            System.out.printf("%-28s %s (%d entries)%n", scenario, same ? "OK" : "FAIL", actual.size());
+            if (!same) failures++;
+        }
+    }
+
+    private static void appendBytes(Path file, byte[] bytes) throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.seek(out.length());
+            out.write(bytes);
+        }
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+            out.seek(position);
+            int b = out.read();
+            out.seek(position);
+            out.write(b ^ 0xFF);
+        }
+    }
+
+    private static void expect(String what, long actual, long expected) {
+        if (actual != expected) {
+            failures++;
+            System.out.println("FAIL " + what + ": got " + actual + ", expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+// Stresses InputQueue across two threads: a producer offers numbered events
+// as fast as it can, retrying whenever the ring is full, while the consumer
+// polls them. Every event must arrive exactly once, in order, with the kind
+// and timestamp written together, which catches a slot published before its
+// contents (the lazySet ordering) or a stale cached counter letting one side
+// overrun the other. A small ring keeps both sides hitting full and empty.
+// Usage: InputQueueCheck [events] [capacity]
+public class InputQueueCheck {
+    public static void main(String[] args) throws InterruptedException {
+        long events = args.length > 0 ? Long.parseLong(args[0]) : 2_000_000;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        InputQueue queue = new InputQueue(capacity);
+        long[] fullRetries = {0};
+
+        Thread producer = new Thread(() -> {
+            for (long i = 0; i < events; i++) {
+                while (!queue.offer(kind(i), i)) {
+                    fullRetries[0]++;
+                    Thread.yield(); // Spinning alone would wait out a whole time slice on one core
+                }
+            }
+        }, "input-producer");
+        long start = System.nanoTime();
+        producer.start();
+
+        long received = 0, outOfOrder = 0, torn = 0, emptyPolls = 0;
+        while (received < events) {
+            int kind = queue.poll();
+            if (kind == InputQueue.NONE) {
+                emptyPolls++;
+                if (!producer.isAlive() && (kind = queue.poll()) == InputQueue.NONE) break; // Lost events
+                if (kind == InputQueue.NONE) {
+                    Thread.yield();
+                    continue;
+                }
+            }
+            long timestamp = queue.getPolledTimestamp();
+            if (timestamp != received) outOfOrder++;
+            if (kind != kind(timestamp)) torn++;
+            received++;
+        }
+        producer.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d of %d events received in %.2f s: %d out of order, %d torn; %d full retries, %d empty polls%n",
+            received, events, seconds, outOfOrder, torn, fullRetries[0], emptyPolls);
+        if (received != events || outOfOrder != 0 || torn != 0 || queue.poll() != InputQueue.NONE) {
+            System.exit(1);
+        }
+    }
+
+    private static int kind(long i) {
+        return i % 3 == 0 ? InputQueue.REWIND : InputQueue.PRESS;
+    }
+}
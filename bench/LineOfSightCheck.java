@@ -0,0 +1,64 @@
+// Cross-checks hunter line of sight on random crowded worlds:
+//   - the swept test through the grid and the blocker hint must agree with a
+//     brute-force sweep over every obstacle;
+//   - whatever the original nine-sample test saw blocked, the sweep must see
+//     blocked too, up to the one pixel the samples lose to int truncation.
+// The sweep may block where the samples slipped between an obstacle; those
+// cases are counted, not failed. Usage: LineOfSightCheck [worlds]
+public class LineOfSightCheck {
+    private static final int TICKS = 40;
+
+    public static void main(String[] args) {
+        int worlds = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long checks = 0, blocked = 0, sweepOnly = 0, cacheMismatches = 0, missedBySweep = 0;
+
+        GameWorld world = new GameWorld(1);
+        GameRandom random = new GameRandom(7);
+        for (int seed = 1; seed <= worlds; seed++) {
+            Scenario.populate(world, seed, 2 + random.nextInt(64), 20, 0);
+            for (int tick = 0; tick < TICKS && world.getState() == GameWorld.GameState.RUNNING; tick++) {
+                world.step(random.nextInt(4) == 0);
+                world.rebuildGrids();
+
+                Player player = world.getPlayer();
+                SpatialGrid<Obstacle> grid = world.getObstacleGrid();
+                EntityStore<Enemy> enemies = world.getEnemies();
+                for (int i = 0; i < enemies.size(); i++) {
+                    Enemy enemy = enemies.get(i);
+                    double x = enemy.getX(), y = enemy.getY();
+                    int width = enemy.getWidth();
+
+                    boolean swept = enemy.isPathBlocked(player, grid, x, y, width);
+                    boolean reference = bruteForce(world, player, x, y, width, 0);
+                    boolean sampled = enemy.isPathBlockedSampled(player, grid, x, y, width);
+                    checks++;
+                    if (swept) blocked++;
+                    if (swept != reference) cacheMismatches++;
+                    if (swept && !sampled) sweepOnly++;
+                    if (sampled && !swept && !bruteForce(world, player, x, y, width, 1)) missedBySweep++;
+                }
+            }
+        }
+
+        System.out.printf("%d checks, %d blocked, %d blocked only by the sweep%n", checks, blocked, sweepOnly);
+        System.out.printf("grid/hint vs brute force mismatches: %d, sampled hits the sweep missed: %d%n",
+            cacheMismatches, missedBySweep);
+        if (cacheMismatches != 0 || missedBySweep != 0) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean bruteForce(GameWorld world, Player player, double x, double y, int width, int margin) {
+        double dx = player.getX() - x, dy = player.getY() - y;
+        EntityStore<Obstacle> obstacles = world.getObstacles();
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            if (Enemy.sweepHits(x + dx * 0.1, y + dy * 0.1, dx * 0.8, dy * 0.8, width, Enemy.SIZE,
+                    (int)obstacle.getX() - margin, (int)obstacle.getY() - margin,
+                    obstacle.getWidth() + 2 * margin, obstacle.getHeight() + 2 * margin)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,108 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Runs a ReplayServer on a free localhost port and checks it end to end:
+//   - genuine GapPilot replays verify (200), the same with the score bumped,
+//     or carrying on past the player's death, are mismatches (422);
+//   - garbage, replays over the tick cap and GETs are refused up front;
+//   - a burst of concurrent uploads against one worker and a short queue
+//     only ever gets 200 or 503, and the metrics add up to what was sent.
+// Then it prints the server's metrics. Usage: ReplayServerCheck [replays] [burst]
+public class ReplayServerCheck {
+    private static final long RUN_TICKS = 10_000;
+    private static final long MAX_TICKS = 20_000;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        int replays = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int burst = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        List<Replay> genuine = new ArrayList<>();
+        GameWorld world = new GameWorld(1);
+        for (long seed = 1; seed <= replays; seed++) {
+            world.reset(seed);
+            Pilot pilot = new GapPilot(seed);
+            while (world.getState() == GameWorld.GameState.RUNNING && world.getTick() < RUN_TICKS) {
+                world.step(pilot.shouldJump(world));
+            }
+            genuine.add(world.toReplay());
+        }
+
+        System.setProperty("sun.net.httpserver.nodelay", "true"); // As Main sets it for --serve-replays
+        HttpClient client = HttpClient.newHttpClient();
+        try (ReplayServer server = new ReplayServer(0, 1, 4, MAX_TICKS)) {
+            URI verify = URI.create("http://localhost:" + server.getPort() + "/verify");
+            long verified = 0, mismatched = 0;
+            for (Replay replay : genuine) {
+                Replay higher = new Replay(replay.getSeed(), replay.getTicks(), replay.getScore() + 1, replay.getJumpTicks());
+                Replay longer = new Replay(replay.getSeed(), replay.getTicks() + 1, replay.getScore(), replay.getJumpTicks());
+                expect("genuine seed " + replay.getSeed(), post(client, verify, replay.toBytes()), 200);
+                expect("inflated score seed " + replay.getSeed(), post(client, verify, higher.toBytes()), 422);
+                verified++;
+                mismatched++;
+                if (replay.getTicks() < RUN_TICKS) {
+                    expect("past death seed " + replay.getSeed(), post(client, verify, longer.toBytes()), 422);
+                    mismatched++;
+                }
+            }
+            expect("garbage", post(client, verify, new byte[] {1, 2, 3}), 400);
+            expect("over the tick cap", post(client, verify, new Replay(1, MAX_TICKS + 1, 0, new long[0]).toBytes()), 400);
+            expect("GET", client.send(HttpRequest.newBuilder(verify).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).statusCode(), 405);
+
+            // A worker and four queue slots can't take them all at once
+            List<CompletableFuture<HttpResponse<String>>> pending = new ArrayList<>();
+            for (int i = 0; i < burst; i++) {
+                byte[] body = genuine.get(i % genuine.size()).toBytes();
+                pending.add(client.sendAsync(HttpRequest.newBuilder(verify)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body)).build(), HttpResponse.BodyHandlers.ofString()));
+            }
+            int ok = 0, busy = 0;
+            for (CompletableFuture<HttpResponse<String>> response : pending) {
+                int status = response.join().statusCode();
+                if (status == 200) ok++;
+                else if (status == 503) busy++;
+                else expect("burst", status, 200);
+            }
+            verified += ok;
+            System.out.printf("Burst of %d: %d verified, %d turned away busy%n", burst, ok, busy);
+
+            String metrics = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/metrics"))
+                .build(), HttpResponse.BodyHandlers.ofString()).body();
+            System.out.print(metrics);
+            expect("verified in metrics", metric(metrics, "neonrunner_replays_total{result=\"verified\"}"), verified);
+            expect("mismatched in metrics", metric(metrics, "neonrunner_replays_total{result=\"mismatched\"}"), mismatched);
+            expect("rejected in metrics", metric(metrics, "neonrunner_replays_total{result=\"rejected\"}"), busy);
+        }
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int post(HttpClient client, URI uri, byte[] body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofByteArray(body)).build(),
+            HttpResponse.BodyHandlers.ofString()).statusCode();
+    }
+
+    private static long metric(String metrics, String name) {
+        for (String line : metrics.split("\n")) {
+            if (line.startsWith(name + " ")) {
+                return Long.parseLong(line.substring(name.length() + 1).trim());
+            }
+        }
+        return -1;
+    }
+
+    private static void expect(String what, long actual, long expected) {
+        if (actual != expected) {
+            failures++;
+            System.out.println("FAIL " + what + ": got " + actual + ", expected " + expected);
+        }
+    }
+}
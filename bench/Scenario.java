@@ -0,0 +1,32 @@
+// Fills a world with a fixed number of entities ahead of the player, beyond
+// what the spawners would produce, for stress and benchmark scenarios.
+public class Scenario {
+    private static final double MIN_X = 400;
+    private static final double MAX_X = 1000;
+    private static final int GAP_HEIGHT = 200;
+    private static final Enemy.EnemyType[] ENEMY_TYPES = Enemy.EnemyType.values();
+
+    public static void populate(GameWorld world, long seed, int obstacles, int enemies, int powerUps) {
+        world.reset(seed);
+        GameRandom random = new GameRandom(seed);
+
+        for (int i = 0; i < obstacles; i += 2) {
+            double x = MIN_X + random.nextDouble() * (MAX_X - MIN_X);
+            int gapY = random.nextInt(GameWorld.HEIGHT - GAP_HEIGHT);
+            world.getObstacles().spawn().init(x, 0, 80, gapY);
+            if (i + 1 < obstacles) {
+                world.getObstacles().spawn().init(x, gapY + GAP_HEIGHT, 80, GameWorld.HEIGHT - (gapY + GAP_HEIGHT));
+            }
+        }
+        for (int i = 0; i < enemies; i++) {
+            double x = MIN_X + random.nextDouble() * (MAX_X - MIN_X);
+            world.getEnemies().spawn().init(x, random.nextInt(GameWorld.HEIGHT - 30), ENEMY_TYPES[i % ENEMY_TYPES.length]);
+        }
+        for (int i = 0; i < powerUps; i++) {
+            int x = (int) (MIN_X + random.nextDouble() * (MAX_X - MIN_X));
+            PowerUp.PowerUpType type = i % 2 == 0 ? PowerUp.PowerUpType.ROCKET_BOOST : PowerUp.PowerUpType.DATA_PACK;
+            world.getPowerUps().spawn().init(x, random.nextInt(GameWorld.HEIGHT - 20), type);
+        }
+        world.rebuildGrids();
+    }
+}
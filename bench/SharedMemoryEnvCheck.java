@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Plays the trainer side of SharedMemoryEnv against a server thread, through
+// its own mapping of the file and only what the layout comment documents:
+//   - the header fields, read once the magic has been acquired, the section
+//     offsets with their 8-byte alignment (an odd world count makes the
+//     padding matter) and the file size;
+//   - RESET, then STEP with a gap-following policy across several episodes,
+//     each answered through the request/response handshake, with
+//     observations, rewards and done flags bit for bit equal to an
+//     in-process BatchEnv given the same seed and actions;
+//   - an unknown command answered with STATUS_UNKNOWN_COMMAND and no effect;
+//   - CLOSE, after which serve() returns the number of steps it served.
+// Usage: SharedMemoryEnvCheck [worlds] [steps]
+public class SharedMemoryEnvCheck {
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long SEED = 42;
+    private static final long MAX_TICKS = 400;
+    private static final long TIMEOUT_NANOS = 10_000_000_000L;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        int worlds = args.length > 0 ? Integer.parseInt(args[0]) : 37;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Path file = Files.createTempFile("neonrunner-check", ".shm");
+        long[] served = {-1};
+        Thread server = new Thread(() -> {
+            try (SharedMemoryEnv env = new SharedMemoryEnv(file, worlds, MAX_TICKS, 2)) {
+                served[0] = env.serve();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, "shm-server");
+        server.setDaemon(true);
+        server.start();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Trainer trainer = new Trainer(channel, worlds);
+            BatchEnv reference = new BatchEnv(worlds, MAX_TICKS, 1);
+            float[] observations = new float[worlds * BatchEnv.OBSERVATION_SIZE];
+            float[] rewards = new float[worlds];
+            byte[] dones = new byte[worlds];
+            byte[] actions = new byte[worlds];
+
+            trainer.mapped.putLong(48, SEED);
+            expect("RESET status", trainer.call(SharedMemoryEnv.COMMAND_RESET), SharedMemoryEnv.STATUS_OK);
+            reference.reset(SEED, observations);
+            compare(trainer, "after RESET", observations, null, null);
+
+            long episodes = 0;
+            for (int step = 0; step < steps; step++) {
+                for (int i = 0; i < worlds; i++) {
+                    int row = i * BatchEnv.OBSERVATION_SIZE;
+                    actions[i] = (byte) (observations[row] + 0.05f > observations[row + 6] - 0.1f ? 1 : 0);
+                    trainer.mapped.put(trainer.actionsOffset + i, actions[i]);
+                }
+                expect("STEP status", trainer.call(SharedMemoryEnv.COMMAND_STEP), SharedMemoryEnv.STATUS_OK);
+                reference.step(actions, observations, rewards, dones);
+                compare(trainer, "step " + step, observations, rewards, dones);
+                for (byte done : dones) episodes += done;
+            }
+
+            expect("unknown command status", trainer.call(99), SharedMemoryEnv.STATUS_UNKNOWN_COMMAND);
+            compare(trainer, "after unknown command", observations, rewards, dones);
+            expect("CLOSE status", trainer.call(SharedMemoryEnv.COMMAND_CLOSE), SharedMemoryEnv.STATUS_OK);
+            server.join(TIMEOUT_NANOS / 1_000_000);
+            expect("steps served", served[0], steps);
+            reference.close();
+            System.out.printf("%d worlds, %d steps, %d episodes over the shared file%n", worlds, steps, episodes);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // The trainer's view of the file, laid out from the header alone
+    private static final class Trainer {
+        final MappedByteBuffer mapped;
+        final int actionsOffset, rewardsOffset, donesOffset, observationsOffset;
+        final int worlds, observationSize;
+        long sequence;
+
+        Trainer(FileChannel channel, int expectedWorlds) throws Exception {
+            long deadline = System.nanoTime() + TIMEOUT_NANOS;
+            MappedByteBuffer header = null;
+            // Acquiring the magic makes the header fields written before it visible
+            while (header == null || (int) INTS.getAcquire(header, 0) != SharedMemoryEnv.MAGIC) {
+                if (System.nanoTime() > deadline) throw new IllegalStateException("Server never published a header");
+                if (channel.size() >= 64) {
+                    header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 64);
+                    header.order(ByteOrder.LITTLE_ENDIAN);
+                }
+                Thread.sleep(1);
+            }
+            expect("version", header.getInt(4), SharedMemoryEnv.VERSION);
+            worlds = header.getInt(8);
+            observationSize = header.getInt(12);
+            expect("worlds", worlds, expectedWorlds);
+            expect("observation size", observationSize, BatchEnv.OBSERVATION_SIZE);
+            expect("max ticks", header.getLong(16), MAX_TICKS);
+
+            actionsOffset = 64;
+            rewardsOffset = align(actionsOffset + worlds);
+            donesOffset = align(rewardsOffset + worlds * 4);
+            observationsOffset = align(donesOffset + worlds);
+            long size = observationsOffset + (long) worlds * observationSize * 4;
+            expect("file size", channel.size(), size);
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            sequence = (long) LONGS.getAcquire(mapped, 24);
+        }
+
+        // Sends the command and waits for the response; returns the status
+        int call(int command) {
+            mapped.putInt(40, command);
+            sequence++;
+            LONGS.setRelease(mapped, 24, sequence);
+            long deadline = System.nanoTime() + TIMEOUT_NANOS;
+            while ((long) LONGS.getAcquire(mapped, 32) != sequence) {
+                if (System.nanoTime() > deadline) throw new IllegalStateException("No response to command " + command);
+                Thread.onSpinWait();
+            }
+            return mapped.getInt(44);
+        }
+
+        private static int align(int offset) {
+            return (offset + 7) & ~7;
+        }
+    }
+
+    private static void compare(Trainer trainer, String what, float[] observations, float[] rewards, byte[] dones) {
+        int mismatches = 0;
+        for (int i = 0; i < observations.length; i++) {
+            if (Float.floatToRawIntBits(trainer.mapped.getFloat(trainer.observationsOffset + i * 4))
+                    != Float.floatToRawIntBits(observations[i])) mismatches++;
+        }
+        for (int i = 0; rewards != null && i < rewards.length; i++) {
+            if (Float.floatToRawIntBits(trainer.mapped.getFloat(trainer.rewardsOffset + i * 4))
+                    != Float.floatToRawIntBits(rewards[i])) mismatches++;
+            if (trainer.mapped.get(trainer.donesOffset + i) != dones[i]) mismatches++;
+        }
+        expect(what + " mismatches", mismatches, 0);
+    }
+
+    private static void expect(String what, long actual, long expected) {
+        if (actual != expected) {
+            failures++;
+            System.out.println("FAIL " + what + ": got " + actual + ", expected " + expected);
+        }
+    }
+}
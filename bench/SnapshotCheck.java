@@ -0,0 +1,105 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+// Checks that GameWorld snapshots branch and rewind a run without changing
+// it. For each seed a GapPilot run is recorded, then replayed to its middle
+// and snapshotted there:
+//   - five branches each play random jumps from the snapshot, rewind to it
+//     and finish the recorded inputs; the final state must digest the same
+//     as the original run's;
+//   - a fresh world restored from the snapshot must finish the same way,
+//     and its toReplay() must equal the recording and verify.
+// A digest is the CRC32 of the world's own snapshot, jump log included.
+// Usage: SnapshotCheck [seeds] [branches]
+public class SnapshotCheck {
+    private static final long RUN_TICKS = 3_000;
+    private static final int BRANCH_TICKS = 300;
+    private static int failures;
+
+    public static void main(String[] args) {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int branches = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        GameWorld world = new GameWorld(1);
+        ByteBuffer snapshot = ByteBuffer.allocate(1 << 16);
+        long branchTicks = 0;
+
+        for (long seed = 1; seed <= seeds; seed++) {
+            world.reset(seed);
+            Pilot pilot = new GapPilot(seed);
+            while (world.getTick() < RUN_TICKS && world.getState() == GameWorld.GameState.RUNNING) {
+                world.step(pilot.shouldJump(world));
+            }
+            Replay recorded = world.toReplay();
+            long expected = digest(world);
+
+            world.reset(seed);
+            long[] jumps = recorded.getJumpTicks();
+            while (world.getTick() < recorded.getTicks() / 2) {
+                world.step(Arrays.binarySearch(jumps, world.getTick()) >= 0);
+            }
+            snapshot = save(world, snapshot);
+
+            GameRandom random = new GameRandom(seed);
+            for (int branch = 0; branch < branches; branch++) {
+                snapshot.rewind();
+                world.restore(snapshot);
+                for (int t = 0; t < BRANCH_TICKS && world.getState() == GameWorld.GameState.RUNNING; t++) {
+                    world.step(random.nextInt(100) < 10);
+                    branchTicks++;
+                }
+                snapshot.rewind();
+                world.restore(snapshot);
+                finish(world, recorded);
+                expect("seed " + seed + " branch " + branch + " digest", digest(world), expected);
+            }
+
+            GameWorld fresh = new GameWorld(seed + seeds);
+            snapshot.rewind();
+            fresh.restore(snapshot);
+            finish(fresh, recorded);
+            expect("seed " + seed + " fresh world digest", digest(fresh), expected);
+            Replay restored = fresh.toReplay();
+            expect("seed " + seed + " fresh world replay", restored.getSeed() == recorded.getSeed()
+                && restored.getTicks() == recorded.getTicks() && restored.getScore() == recorded.getScore()
+                && Arrays.equals(restored.getJumpTicks(), jumps) && restored.verify() ? 1 : 0, 1);
+        }
+
+        System.out.printf("%d seeds x %d branches, %d ticks off the recorded runs%n", seeds, branches, branchTicks);
+        System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Plays the recording's jumps from wherever the world is up to its last tick
+    private static void finish(GameWorld world, Replay recorded) {
+        long[] jumps = recorded.getJumpTicks();
+        while (world.getTick() < recorded.getTicks() && world.getState() == GameWorld.GameState.RUNNING) {
+            world.step(Arrays.binarySearch(jumps, world.getTick()) >= 0);
+        }
+    }
+
+    private static ByteBuffer save(GameWorld world, ByteBuffer buffer) {
+        if (buffer.capacity() < world.snapshotSize()) {
+            buffer = ByteBuffer.allocate(world.snapshotSize() * 2);
+        }
+        buffer.clear();
+        world.save(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static long digest(GameWorld world) {
+        CRC32 crc = new CRC32();
+        crc.update(save(world, ByteBuffer.allocate(world.snapshotSize())));
+        return crc.getValue();
+    }
+
+    private static void expect(String what, long actual, long expected) {
+        if (actual != expected) {
+            failures++;
+            System.out.println("FAIL " + what + ": got " + actual + ", expected " + expected);
+        }
+    }
+}
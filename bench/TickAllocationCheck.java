@@ -0,0 +1,53 @@
+import java.lang.management.ManagementFactory;
+
+// Checks that a steady-state GameWorld.step allocates nothing on the heap.
+// The same seeded GapPilot runs are played twice on one world: the first
+// pass grows the entity pools, grids and jump log to their high-water marks
+// and warms up the JIT, the second must then allocate zero bytes on this
+// thread. A seed crowding the screen more than any before it would still
+// grow the pools once, which is why the passes share their seeds. Resets
+// between runs are outside the measurement, the pilot inside it.
+// Usage: TickAllocationCheck [seeds]
+public class TickAllocationCheck {
+    private static final int RUN_TICKS = 20_000;
+
+    public static void main(String[] args) {
+        int seeds = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        GameWorld world = new GameWorld(1);
+        for (long seed = 1; seed <= seeds; seed++) {
+            world.reset(seed);
+            play(world, new GapPilot(seed));
+        }
+
+        long ticks = 0, allocated = 0, allocatingRuns = 0;
+        for (long seed = 1; seed <= seeds; seed++) {
+            world.reset(seed);
+            Pilot pilot = new GapPilot(seed);
+            long before = threads.getThreadAllocatedBytes(threadId);
+            ticks += play(world, pilot);
+            long bytes = threads.getThreadAllocatedBytes(threadId) - before;
+            if (bytes > 0) {
+                allocated += bytes;
+                allocatingRuns++;
+                System.out.println("seed " + seed + ": " + bytes + " bytes");
+            }
+        }
+
+        System.out.printf("%d steady-state ticks over %d runs: %d bytes allocated in %d runs (%.4f B/tick)%n",
+            ticks, seeds, allocated, allocatingRuns, allocated / (double) ticks);
+        if (allocated > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static long play(GameWorld world, Pilot pilot) {
+        while (world.getState() == GameWorld.GameState.RUNNING && world.getTick() < RUN_TICKS) {
+            world.step(pilot.shouldJump(world));
+        }
+        return world.getTick();
+    }
+}
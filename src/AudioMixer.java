@@ -0,0 +1,134 @@
+import javax.sound.sampled.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Software mixer on one preopened SourceDataLine. A dedicated thread sums
+// the active voices into small blocks and writes them to the line, which
+// paces it; latency is bounded by the line buffer. Triggering a sound only
+// bumps a per-sound counter, so play() is lock-free and allocation-free from
+// any thread.
+public class AudioMixer implements Runnable {
+    public static final int SAMPLE_RATE = 44100;
+    private static final int BLOCK_FRAMES = 256; // ~5.8ms
+    private static final int LINE_BLOCKS = 4;
+    private static final int MAX_VOICES = 8;
+    private static final int MAX_VOICES_PER_SOUND = 2;
+
+    // 16-bit output leaves headroom for summing 8-bit voices
+    private static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+
+    private final byte[][] sounds;
+    private final AtomicIntegerArray pending;
+    private final SourceDataLine line;
+    private final Thread thread;
+    private volatile boolean running;
+
+    // Voice table, only touched by the mixer thread
+    private final int[] voiceSound = new int[MAX_VOICES];
+    private final int[] voicePosition = new int[MAX_VOICES];
+    private final long[] voiceStarted = new long[MAX_VOICES];
+    private long voiceCounter;
+
+    private final int[] mix = new int[BLOCK_FRAMES];
+    private final byte[] block = new byte[BLOCK_FRAMES * 2];
+
+    // Sounds are signed 8-bit mono PCM at SAMPLE_RATE
+    public AudioMixer(byte[][] sounds) throws LineUnavailableException {
+        this.sounds = sounds;
+        pending = new AtomicIntegerArray(sounds.length);
+        java.util.Arrays.fill(voiceSound, -1);
+
+        line = AudioSystem.getSourceDataLine(FORMAT);
+        line.open(FORMAT, block.length * LINE_BLOCKS);
+        line.start();
+
+        running = true;
+        thread = new Thread(this, "audio-mixer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    public void play(int sound) {
+        pending.incrementAndGet(sound);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                startPendingVoices();
+                mixBlock();
+                // Blocks while the line buffer is full, which paces the thread
+                line.write(block, 0, block.length);
+            }
+        } finally {
+            line.stop();
+            line.flush();
+            line.close();
+        }
+    }
+
+    private void startPendingVoices() {
+        for (int sound = 0; sound < sounds.length; sound++) {
+            int requests = Math.min(pending.getAndSet(sound, 0), MAX_VOICES_PER_SOUND);
+            for (int i = 0; i < requests; i++) {
+                startVoice(sound);
+            }
+        }
+    }
+
+    // Takes a free voice; at the per-sound or global limit the oldest one is restarted instead
+    private void startVoice(int sound) {
+        int free = -1, oldest = -1, oldestOfSound = -1, playingSound = 0;
+        for (int v = 0; v < MAX_VOICES; v++) {
+            if (voiceSound[v] < 0) {
+                if (free < 0) free = v;
+                continue;
+            }
+            if (oldest < 0 || voiceStarted[v] < voiceStarted[oldest]) oldest = v;
+            if (voiceSound[v] == sound) {
+                playingSound++;
+                if (oldestOfSound < 0 || voiceStarted[v] < voiceStarted[oldestOfSound]) oldestOfSound = v;
+            }
+        }
+        int voice = playingSound >= MAX_VOICES_PER_SOUND ? oldestOfSound : free >= 0 ? free : oldest;
+        voiceSound[voice] = sound;
+        voicePosition[voice] = 0;
+        voiceStarted[voice] = voiceCounter++;
+    }
+
+    private void mixBlock() {
+        java.util.Arrays.fill(mix, 0);
+        for (int v = 0; v < MAX_VOICES; v++) {
+            int sound = voiceSound[v];
+            if (sound < 0) continue;
+            byte[] pcm = sounds[sound];
+            int position = voicePosition[v];
+            int frames = Math.min(BLOCK_FRAMES, pcm.length - position);
+            for (int i = 0; i < frames; i++) {
+                mix[i] += pcm[position + i];
+            }
+            position += frames;
+            if (position >= pcm.length) {
+                voiceSound[v] = -1;
+            } else {
+                voicePosition[v] = position;
+            }
+        }
+        for (int i = 0; i < BLOCK_FRAMES; i++) {
+            int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i] << 8));
+            block[2 * i] = (byte)sample;
+            block[2 * i + 1] = (byte)(sample >> 8);
+        }
+    }
+
+    // Stops the mixer thread and releases the line
+    public void close() {
+        running = false;
+        try {
+            thread.join(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Gym-style environment over a batch of headless worlds, for training bots.
+// step() applies one action per world (non-zero = jump), advances every world
+// a tick and writes observations, rewards and done flags into caller-owned
+// arrays or buffers. Steps allocate nothing once every world's entity pools,
+// grids and jump log have grown to what its episodes need; until then, an
+// episode more crowded than any before it on that world grows them once.
+// That growth is all the BatchEnv.step bench measures on fresh seeds (about
+// 1 B per world step), and it fades as the batch plays on.
+//
+// Finished worlds reset themselves: a done flag marks the step that ended an
+// episode (death or maxTicks), and that world's observation is already the
+// first one of its next episode. World i plays seeds seed + i, seed + i + size,
+// seed + i + 2 * size, ... so a batch is reproducible whatever the thread count.
+//
+// Observation layout per world, OBSERVATION_SIZE floats, all roughly in [-1, 1]:
+//   player:        y / HEIGHT, velocityY / max fall speed, health / max health, rocket boost 0|1
+//   OBSTACLE_SLOTS gaps ahead, nearest first:
+//                  (left edge - player x) / WIDTH, gap top / HEIGHT, gap bottom / HEIGHT
+//                  (1, 0, 1 when there is none)
+//   ENEMY_SLOTS enemies, nearest first:
+//                  present 0|1, dx / WIDTH, dy / HEIGHT, velocityX / 2, velocityY / 2,
+//                  type ordinal / 2 (all zero when there is none)
+public class BatchEnv implements AutoCloseable {
+    public static final int OBSTACLE_SLOTS = 2;
+    public static final int ENEMY_SLOTS = 3;
+    private static final int PLAYER_FEATURES = 4;
+    private static final int OBSTACLE_FEATURES = 3;
+    private static final int ENEMY_FEATURES = 6;
+    public static final int OBSERVATION_SIZE = PLAYER_FEATURES + OBSTACLE_SLOTS * OBSTACLE_FEATURES + ENEMY_SLOTS * ENEMY_FEATURES;
+    public static final float DEATH_REWARD = -100f;
+    private static final int WORLDS_PER_TASK = 64;
+
+    private final GameWorld[] worlds;
+    private final long[] seeds;
+    private final long maxTicks;
+    private final ForkJoinPool pool;
+    private final Chunk[] chunks;
+    private final RecursiveAction all;
+    private final ArrayIo arrays = new ArrayIo();
+    private final BufferIo buffers = new BufferIo();
+    private Io io;
+    private boolean resetting;
+
+    // parallelism 1 steps everything on the calling thread
+    public BatchEnv(int size, long maxTicks, int parallelism) {
+        this.maxTicks = maxTicks;
+        worlds = new GameWorld[size];
+        seeds = new long[size];
+        for (int i = 0; i < size; i++) {
+            worlds[i] = new GameWorld(i);
+        }
+
+        chunks = new Chunk[(size + WORLDS_PER_TASK - 1) / WORLDS_PER_TASK];
+        for (int c = 0; c < chunks.length; c++) {
+            chunks[c] = new Chunk(c * WORLDS_PER_TASK, Math.min(size, (c + 1) * WORLDS_PER_TASK));
+        }
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        all = new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(chunks);
+            }
+        };
+    }
+
+    public int size() {
+        return worlds.length;
+    }
+
+    public GameWorld getWorld(int index) {
+        return worlds[index];
+    }
+
+    public void reset(long seed, float[] observations) {
+        arrays.set(null, observations, null, null);
+        reset(seed, arrays);
+    }
+
+    public void reset(long seed, ByteBuffer observations) {
+        buffers.set(null, observations, null, null);
+        reset(seed, buffers);
+    }
+
+    // observations: size * OBSERVATION_SIZE floats; rewards: size floats; dones: size bytes
+    public void step(byte[] actions, float[] observations, float[] rewards, byte[] dones) {
+        arrays.set(actions, observations, rewards, dones);
+        run(arrays, false);
+    }
+
+    // Same layout as the array version; buffers are read and written at absolute
+    // positions from 0 in their own byte order, floats taking 4 bytes each
+    public void step(ByteBuffer actions, ByteBuffer observations, ByteBuffer rewards, ByteBuffer dones) {
+        buffers.set(actions, observations, rewards, dones);
+        run(buffers, false);
+    }
+
+    private void reset(long seed, Io target) {
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = seed + i;
+        }
+        run(target, true);
+    }
+
+    private void run(Io target, boolean reset) {
+        io = target;
+        resetting = reset;
+        if (pool == null) {
+            for (Chunk chunk : chunks) {
+                chunk.compute();
+            }
+        } else {
+            for (Chunk chunk : chunks) {
+                chunk.reinitialize();
+            }
+            all.reinitialize();
+            pool.invoke(all);
+        }
+        io = null;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private class Chunk extends RecursiveAction {
+        private final int from, to;
+        private final float[] row = new float[OBSERVATION_SIZE];
+        private final double[] nearest = new double[Math.max(OBSTACLE_SLOTS, ENEMY_SLOTS)];
+        private final int[] nearestIndex = new int[ENEMY_SLOTS];
+
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            Io target = io;
+            for (int i = from; i < to; i++) {
+                GameWorld world = worlds[i];
+                if (resetting) {
+                    world.reset(seeds[i]);
+                } else {
+                    int score = world.getScore();
+                    world.step(target.action(i));
+                    boolean dead = world.getState() != GameWorld.GameState.RUNNING;
+                    boolean done = dead || world.getTick() >= maxTicks;
+                    target.result(i, dead ? DEATH_REWARD : world.getScore() - score, done);
+                    if (done) {
+                        seeds[i] += worlds.length;
+                        world.reset(seeds[i]);
+                    }
+                }
+                observe(world, row);
+                target.observation(i, row);
+            }
+        }
+
+        private void observe(GameWorld world, float[] out) {
+            Player player = world.getPlayer();
+            double playerX = player.getX(), playerY = player.getY();
+            out[0] = (float) (playerY / GameWorld.HEIGHT);
+            out[1] = (float) (player.getVelocityY() / Player.MAX_FALL_SPEED);
+            out[2] = player.getHealth() / (float) Player.MAX_HEALTH;
+            out[3] = player.hasRocketBoost() ? 1 : 0;
+            int o = PLAYER_FEATURES;
+
+            // Obstacles come in top/bottom pairs sharing an x; slots hold the nearest distinct x values ahead
+            EntityStore<Obstacle> obstacles = world.getObstacles();
+            int found = 0;
+            for (int i = 0; i < obstacles.size(); i++) {
+                Obstacle obstacle = obstacles.get(i);
+                double left = obstacle.getX();
+                if (left + obstacle.getWidth() < playerX) continue;
+                found = insertNearest(left, -1, found, OBSTACLE_SLOTS, true);
+            }
+            for (int slot = 0; slot < OBSTACLE_SLOTS; slot++, o += OBSTACLE_FEATURES) {
+                if (slot >= found) {
+                    out[o] = 1;
+                    out[o + 1] = 0;
+                    out[o + 2] = 1;
+                    continue;
+                }
+                double left = nearest[slot];
+                double gapTop = 0, gapBottom = GameWorld.HEIGHT;
+                for (int i = 0; i < obstacles.size(); i++) {
+                    Obstacle obstacle = obstacles.get(i);
+                    if (obstacle.getX() != left) continue;
+                    if (obstacle.getY() <= 0) {
+                        gapTop = obstacle.getHeight();
+                    } else {
+                        gapBottom = obstacle.getY();
+                    }
+                }
+                out[o] = (float) ((left - playerX) / GameWorld.WIDTH);
+                out[o + 1] = (float) (gapTop / GameWorld.HEIGHT);
+                out[o + 2] = (float) (gapBottom / GameWorld.HEIGHT);
+            }
+
+            EntityStore<Enemy> enemies = world.getEnemies();
+            found = 0;
+            for (int i = 0; i < enemies.size(); i++) {
+                Enemy enemy = enemies.get(i);
+                double dx = enemy.getX() - playerX, dy = enemy.getY() - playerY;
+                found = insertNearest(dx * dx + dy * dy, i, found, ENEMY_SLOTS, false);
+            }
+            for (int slot = 0; slot < ENEMY_SLOTS; slot++, o += ENEMY_FEATURES) {
+                if (slot >= found) {
+                    java.util.Arrays.fill(out, o, o + ENEMY_FEATURES, 0f);
+                    continue;
+                }
+                Enemy enemy = enemies.get(nearestIndex[slot]);
+                out[o] = 1;
+                out[o + 1] = (float) ((enemy.getX() - playerX) / GameWorld.WIDTH);
+                out[o + 2] = (float) ((enemy.getY() - playerY) / GameWorld.HEIGHT);
+                out[o + 3] = (float) (enemy.getVelocityX() / Enemy.BASE_SPEED);
+                out[o + 4] = (float) (enemy.getVelocityY() / Enemy.BASE_SPEED);
+                out[o + 5] = enemy.getType().ordinal() / 2f;
+            }
+        }
+
+        // Keeps the smallest keys seen so far in nearest[0..found), sorted; returns the new count
+        private int insertNearest(double key, int index, int found, int slots, boolean distinct) {
+            int position = found;
+            while (position > 0 && nearest[position - 1] > key) {
+                position--;
+            }
+            if (distinct && position > 0 && nearest[position - 1] == key) return found;
+            if (position >= slots) return found;
+            int last = Math.min(found, slots - 1);
+            for (int j = last; j > position; j--) {
+                nearest[j] = nearest[j - 1];
+                if (index >= 0) nearestIndex[j] = nearestIndex[j - 1];
+            }
+            nearest[position] = key;
+            if (index >= 0) nearestIndex[position] = index;
+            return Math.min(found + 1, slots);
+        }
+    }
+
+    private interface Io {
+        boolean action(int world);
+        void result(int world, float reward, boolean done);
+        void observation(int world, float[] row);
+    }
+
+    private static class ArrayIo implements Io {
+        private byte[] actions;
+        private float[] observations;
+        private float[] rewards;
+        private byte[] dones;
+
+        void set(byte[] actions, float[] observations, float[] rewards, byte[] dones) {
+            this.actions = actions;
+            this.observations = observations;
+            this.rewards = rewards;
+            this.dones = dones;
+        }
+
+        @Override
+        public boolean action(int world) {
+            return actions[world] != 0;
+        }
+
+        @Override
+        public void result(int world, float reward, boolean done) {
+            rewards[world] = reward;
+            dones[world] = (byte) (done ? 1 : 0);
+        }
+
+        @Override
+        public void observation(int world, float[] row) {
+            System.arraycopy(row, 0, observations, world * OBSERVATION_SIZE, OBSERVATION_SIZE);
+        }
+    }
+
+    private static class BufferIo implements Io {
+        private ByteBuffer actions;
+        private ByteBuffer observations;
+        private ByteBuffer rewards;
+        private ByteBuffer dones;
+
+        void set(ByteBuffer actions, ByteBuffer observations, ByteBuffer rewards, ByteBuffer dones) {
+            this.actions = actions;
+            this.observations = observations;
+            this.rewards = rewards;
+            this.dones = dones;
+        }
+
+        @Override
+        public boolean action(int world) {
+            return actions.get(world) != 0;
+        }
+
+        @Override
+        public void result(int world, float reward, boolean done) {
+            rewards.putFloat(world * 4, reward);
+            dones.put(world, (byte) (done ? 1 : 0));
+        }
+
+        @Override
+        public void observation(int world, float[] row) {
+            int base = world * OBSERVATION_SIZE * 4;
+            for (int i = 0; i < OBSERVATION_SIZE; i++) {
+                observations.putFloat(base + i * 4, row[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+// Runs many independent seeded worlds across a ForkJoinPool. Each leaf task
+// reuses one GameWorld for its whole seed range and steps it unthrottled.
+public class BatchRunner {
+    private static final int SEEDS_PER_TASK = 16;
+
+    private final ForkJoinPool pool;
+    private final long maxTicks;
+    private final LongFunction<Pilot> pilots;
+
+    public BatchRunner(int parallelism, long maxTicks, LongFunction<Pilot> pilots) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxTicks = maxTicks;
+        this.pilots = pilots;
+    }
+
+    public Summary run(long firstSeed, int runs) {
+        long start = System.nanoTime();
+        Summary summary = pool.invoke(new RunTask(firstSeed, firstSeed + runs));
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @SuppressWarnings("serial")
+    private class RunTask extends RecursiveTask<Summary> {
+        private final long from, to;
+
+        RunTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (to - from > SEEDS_PER_TASK) {
+                long middle = (from + to) >>> 1;
+                RunTask left = new RunTask(from, middle);
+                left.fork();
+                Summary right = new RunTask(middle, to).compute();
+                return right.merge(left.join());
+            }
+
+            Summary summary = new Summary();
+            GameWorld world = new GameWorld(from);
+            for (long seed = from; seed < to; seed++) {
+                world.reset(seed);
+                Pilot pilot = pilots.apply(seed);
+                while (world.getState() == GameWorld.GameState.RUNNING && world.getTick() < maxTicks) {
+                    world.step(pilot.shouldJump(world));
+                }
+                summary.add(seed, world);
+            }
+            return summary;
+        }
+    }
+
+    public static class Summary {
+        private long runs;
+        private long totalTicks;
+        private long totalScore;
+        private int minScore = Integer.MAX_VALUE;
+        private int maxScore = Integer.MIN_VALUE;
+        private long bestSeed;
+        private long timeouts; // Runs still alive at maxTicks
+        private final long[] deaths = new long[GameWorld.DeathCause.values().length];
+        private long elapsedNanos;
+
+        void add(long seed, GameWorld world) {
+            runs++;
+            totalTicks += world.getTick();
+            totalScore += world.getScore();
+            minScore = Math.min(minScore, world.getScore());
+            if (world.getScore() > maxScore) {
+                maxScore = world.getScore();
+                bestSeed = seed;
+            }
+            if (world.getState() == GameWorld.GameState.RUNNING) {
+                timeouts++;
+            } else {
+                deaths[world.getDeathCause().ordinal()]++;
+            }
+        }
+
+        Summary merge(Summary other) {
+            runs += other.runs;
+            totalTicks += other.totalTicks;
+            totalScore += other.totalScore;
+            minScore = Math.min(minScore, other.minScore);
+            if (other.maxScore > maxScore || (other.maxScore == maxScore && other.bestSeed < bestSeed)) {
+                maxScore = other.maxScore;
+                bestSeed = other.bestSeed;
+            }
+            timeouts += other.timeouts;
+            for (int i = 0; i < deaths.length; i++) {
+                deaths[i] += other.deaths[i];
+            }
+            return this;
+        }
+
+        public long getRuns() { return runs; }
+        public long getTotalTicks() { return totalTicks; }
+        public double getMeanScore() { return runs == 0 ? 0 : totalScore / (double) runs; }
+        public double getMeanSurvivalTicks() { return runs == 0 ? 0 : totalTicks / (double) runs; }
+        public int getMinScore() { return minScore; }
+        public int getMaxScore() { return maxScore; }
+        public long getBestSeed() { return bestSeed; }
+        public long getTimeouts() { return timeouts; }
+        public long getDeaths(GameWorld.DeathCause cause) { return deaths[cause.ordinal()]; }
+        public long getElapsedNanos() { return elapsedNanos; }
+        public double getTicksPerSecond() { return elapsedNanos == 0 ? 0 : totalTicks * 1e9 / elapsedNanos; }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "runs=%d ticks=%d mean score=%.1f min=%d max=%d (seed %d)%n" +
+                "deaths: obstacle=%d enemy=%d, alive at limit=%d%n" +
+                "%.2f s, %.0f ticks/s",
+                runs, totalTicks, getMeanScore(), minScore, maxScore, bestSeed,
+                getDeaths(GameWorld.DeathCause.OBSTACLE), getDeaths(GameWorld.DeathCause.ENEMY), timeouts,
+                elapsedNanos / 1e9, getTicksPerSecond());
+        }
+    }
+}
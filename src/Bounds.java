@@ -0,0 +1,37 @@
+// Mutable integer AABB reused by entities so collision tests never allocate.
+// Intersection follows java.awt.Rectangle.intersects exactly, including its
+// treatment of empty boxes and integer overflow.
+public final class Bounds {
+    public int x, y, width, height;
+
+    public Bounds set(double x, double y, int width, int height) {
+        this.x = (int)x;
+        this.y = (int)y;
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    public boolean intersects(Bounds other) {
+        return intersects(x, y, width, height, other.x, other.y, other.width, other.height);
+    }
+
+    public boolean intersects(int otherX, int otherY, int otherWidth, int otherHeight) {
+        return intersects(x, y, width, height, otherX, otherY, otherWidth, otherHeight);
+    }
+
+    public static boolean intersects(int tx, int ty, int tw, int th, int rx, int ry, int rw, int rh) {
+        if (rw <= 0 || rh <= 0 || tw <= 0 || th <= 0) {
+            return false;
+        }
+        rw += rx;
+        rh += ry;
+        tw += tx;
+        th += ty;
+        // overflow || intersect
+        return (rw < rx || rw > tx) &&
+               (rh < ry || rh > ty) &&
+               (tw < tx || tw > rx) &&
+               (th < ty || th > ry);
+    }
+}
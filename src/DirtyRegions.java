@@ -0,0 +1,111 @@
+import java.util.Arrays;
+
+// Tracks which 32px tiles changed between frames. A tile is redrawn when
+// something covers it this frame or covered it last frame (to erase it).
+// Dirty tiles are coalesced into rectangles: horizontal runs per tile row,
+// merged downwards while consecutive rows have the same span.
+public class DirtyRegions {
+    private static final int TILE = 32;
+
+    private final int width, height;
+    private final int columns, rows;
+    private boolean[] current;
+    private boolean[] previous;
+    private boolean all;
+
+    private final int[] rectX, rectY, rectWidth, rectHeight;
+    private final int[] openRects; // Rect index per span start column, -1 if the span ended
+    private final int[] openEnds;
+    private int rectCount;
+
+    public DirtyRegions(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.columns = (width + TILE - 1) / TILE;
+        this.rows = (height + TILE - 1) / TILE;
+        current = new boolean[columns * rows];
+        previous = new boolean[columns * rows];
+        int maxRects = columns * rows;
+        rectX = new int[maxRects];
+        rectY = new int[maxRects];
+        rectWidth = new int[maxRects];
+        rectHeight = new int[maxRects];
+        openRects = new int[columns];
+        openEnds = new int[columns];
+        all = true;
+    }
+
+    public void markAll() {
+        all = true;
+    }
+
+    public void mark(int x, int y, int w, int h) {
+        if (w <= 0 || h <= 0 || x >= width || y >= height || x + w <= 0 || y + h <= 0) return;
+        int column0 = Math.max(0, x / TILE), column1 = Math.min(columns - 1, (x + w - 1) / TILE);
+        int row0 = Math.max(0, y / TILE), row1 = Math.min(rows - 1, (y + h - 1) / TILE);
+        for (int row = row0; row <= row1; row++) {
+            Arrays.fill(current, row * columns + column0, row * columns + column1 + 1, true);
+        }
+    }
+
+    // Builds this frame's rectangles and starts the next frame; returns the rectangle count
+    public int collect() {
+        rectCount = 0;
+        if (all) {
+            addRect(0, 0, width, height);
+            all = false;
+        } else {
+            Arrays.fill(openRects, -1);
+            for (int row = 0; row < rows; row++) {
+                int base = row * columns;
+                int column = 0;
+                while (column < columns) {
+                    if (!current[base + column] && !previous[base + column]) {
+                        closeSpan(column++);
+                        continue;
+                    }
+                    int start = column;
+                    while (column < columns && (current[base + column] || previous[base + column])) {
+                        column++;
+                    }
+                    extendOrOpen(start, column, row);
+                    for (int c = start + 1; c < column; c++) closeSpan(c);
+                }
+            }
+        }
+
+        boolean[] swap = previous;
+        previous = current;
+        current = swap;
+        Arrays.fill(current, false);
+        return rectCount;
+    }
+
+    private void extendOrOpen(int start, int end, int row) {
+        int open = openRects[start];
+        if (open >= 0 && openEnds[start] == end) {
+            rectHeight[open] = Math.min(height, (row + 1) * TILE) - rectY[open];
+        } else {
+            openRects[start] = rectCount;
+            openEnds[start] = end;
+            addRect(start * TILE, row * TILE, Math.min(width, end * TILE) - start * TILE, Math.min(height, (row + 1) * TILE) - row * TILE);
+        }
+    }
+
+    private void closeSpan(int column) {
+        openRects[column] = -1;
+    }
+
+    private void addRect(int x, int y, int w, int h) {
+        rectX[rectCount] = x;
+        rectY[rectCount] = y;
+        rectWidth[rectCount] = w;
+        rectHeight[rectCount] = h;
+        rectCount++;
+    }
+
+    public int getX(int i) { return rectX[i]; }
+    public int getY(int i) { return rectY[i]; }
+    public int getWidth(int i) { return rectWidth[i]; }
+    public int getHeight(int i) { return rectHeight[i]; }
+}
@@ -1,10 +1,14 @@
-public class Enemy {
-    private static final int SIZE = 30;
-    private static final double BASE_SPEED = 2.0;
+public class Enemy extends Entity {
+    static final int SIZE = 30;
+    static final double BASE_SPEED = 2.0;
+    private static final EnemyType[] TYPES = EnemyType.values();
+    private static final double SIGHT_START = 0.1;
+    private static final double SIGHT_END = 0.9;
     
-    private double x, y;
-    private double velocityX, velocityY;
-    private final EnemyType type;
+    // Position, velocity and type live in the EntityStore row this handle points at
+    private final Bounds bounds = new Bounds();
+    private final Bounds probe = new Bounds(); // Scratch box for movement and line-of-sight tests
+    private Obstacle sightBlocker; // Last obstacle found blocking the view, only ever a hint
     
     public enum EnemyType {
         SECURITY_DRONE,
@@ -12,29 +16,46 @@ public class Enemy {
         TURRET
     }
 
-    public Enemy(double x, double y, EnemyType type) {
-        this.x = x;
-        this.y = y;
-        this.type = type;
+    public Enemy init(double x, double y, EnemyType type) {
+        EntityStore<?> s = store;
+        s.x[slot] = x;
+        s.y[slot] = y;
+        s.previousX[slot] = x;
+        s.previousY[slot] = y;
+        s.type[slot] = type.ordinal();
+        s.width[slot] = type == EnemyType.HUNTER_BOT ? SIZE + 10 : SIZE;
+        s.height[slot] = SIZE;
+        sightBlocker = null;
         
         // Set initial velocities based on type
         switch (type) {
             case SECURITY_DRONE -> {
-                this.velocityX = -BASE_SPEED;
-                this.velocityY = BASE_SPEED;
+                s.velocityX[slot] = -BASE_SPEED;
+                s.velocityY[slot] = BASE_SPEED;
             }
             case HUNTER_BOT -> {
-                this.velocityX = -BASE_SPEED * 0.5;
-                this.velocityY = 0;
+                s.velocityX[slot] = -BASE_SPEED * 0.5;
+                s.velocityY[slot] = 0;
             }
             case TURRET -> {
-                this.velocityX = -BASE_SPEED * 0.75;
-                this.velocityY = 0;
+                s.velocityX[slot] = -BASE_SPEED * 0.75;
+                s.velocityY[slot] = 0;
             }
         }
+        return this;
     }
     
-    public void update(Player player, java.util.ArrayList<Obstacle> obstacles) {
+    public void update(Player player, SpatialGrid<Obstacle> obstacles) {
+        EntityStore<?> s = store;
+        double x = s.x[slot];
+        double y = s.y[slot];
+        double velocityX = s.velocityX[slot];
+        double velocityY = s.velocityY[slot];
+        int width = s.width[slot];
+        EnemyType type = TYPES[s.type[slot]];
+        s.previousX[slot] = x;
+        s.previousY[slot] = y;
+        
         // Store original position
         double originalX = x;
         double originalY = y;
@@ -44,20 +65,7 @@ public class Enemy {
         double nextY = y + velocityY;
         
         // Check if next position would collide
-        java.awt.Rectangle nextBounds = new java.awt.Rectangle(
-            (int)nextX,
-            (int)nextY,
-            type == EnemyType.HUNTER_BOT ? SIZE + 10 : SIZE,
-            SIZE
-        );
-        
-        boolean willCollide = false;
-        for (Obstacle obstacle : obstacles) {
-            if (obstacle.collidesWithRect(nextBounds)) {
-                willCollide = true;
-                break;
-            }
-        }
+        boolean willCollide = wouldCollide(obstacles, probe, nextX, nextY, width);
         
         // Only move if no collision would occur
         if (!willCollide) {
@@ -68,12 +76,12 @@ public class Enemy {
             switch (type) {
                 case SECURITY_DRONE -> {
                     // Bounce off screen edges
-                    if (y <= 0 || y >= GamePanel.getPanelHeight() - SIZE) {
+                    if (y <= 0 || y >= GameWorld.HEIGHT - SIZE) {
                         velocityY *= -1;
                     }
                 }
                 case HUNTER_BOT -> {
-                    if (!isPathBlocked(player, obstacles)) {
+                    if (!isPathBlocked(player, obstacles, x, y, width)) {
                         // Chase player with reduced speed
                         double dy = player.getY() - y;
                         velocityY = Math.signum(dy) * BASE_SPEED * 0.5;
@@ -100,13 +108,99 @@ public class Enemy {
         // Apply speed limits
         velocityX = Math.max(-BASE_SPEED, Math.min(BASE_SPEED, velocityX));
         velocityY = Math.max(-BASE_SPEED, Math.min(BASE_SPEED, velocityY));
+        
+        s.x[slot] = x;
+        s.y[slot] = y;
+        s.velocityX[slot] = velocityX;
+        s.velocityY[slot] = velocityY;
+    }
+    
+    static boolean wouldCollide(SpatialGrid<Obstacle> obstacles, Bounds probe, double x, double y, int width) {
+        Bounds nextBounds = probe.set(
+            x,
+            y,
+            width,
+            SIZE
+        );
+        
+        int candidates = obstacles.query(nextBounds.x, nextBounds.y, nextBounds.width, nextBounds.height);
+        for (int i = 0; i < candidates; i++) {
+            if (obstacles.get(i).collidesWithRect(nextBounds)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Line of sight: sweeps the enemy's box along the segment towards the player
+    // over t in [0.1, 0.9] and tests it against every obstacle in one pass. The
+    // obstacle that blocked the view last time is tried first; hunters usually
+    // stay behind the same one for many ticks, so this skips the grid query.
+    boolean isPathBlocked(Player player, SpatialGrid<Obstacle> obstacles, double x, double y, int width) {
+        double dx = player.getX() - x;
+        double dy = player.getY() - y;
+        double startX = x + dx * SIGHT_START, startY = y + dy * SIGHT_START;
+        double sweepX = dx * (SIGHT_END - SIGHT_START), sweepY = dy * (SIGHT_END - SIGHT_START);
+        
+        Obstacle blocker = sightBlocker;
+        if (blocker != null && blocker.isAlive() && sweepHits(blocker, startX, startY, sweepX, sweepY, width)) {
+            return true;
+        }
+        
+        double minX = Math.min(startX, startX + sweepX), minY = Math.min(startY, startY + sweepY);
+        int candidates = obstacles.query(minX, minY, Math.abs(sweepX) + width, Math.abs(sweepY) + SIZE);
+        for (int i = 0; i < candidates; i++) {
+            Obstacle obstacle = obstacles.get(i);
+            if (sweepHits(obstacle, startX, startY, sweepX, sweepY, width)) {
+                sightBlocker = obstacle;
+                return true;
+            }
+        }
+        sightBlocker = null;
+        return false;
+    }
+    
+    private static boolean sweepHits(Obstacle obstacle, double startX, double startY, double sweepX, double sweepY, int width) {
+        return sweepHits(startX, startY, sweepX, sweepY, width, SIZE,
+            (int)obstacle.getX(), (int)obstacle.getY(), obstacle.getWidth(), obstacle.getHeight());
     }
     
-    private boolean isPathBlocked(Player player, java.util.ArrayList<Obstacle> obstacles) {
+    // Whether a w x h box moved from (startX, startY) by (sweepX, sweepY) ever overlaps
+    // the rectangle, with overlap meaning a shared interior as in Rectangle.intersects.
+    // Slab test of the segment against the rectangle grown by the box size.
+    static boolean sweepHits(double startX, double startY, double sweepX, double sweepY, int w, int h,
+                             double rectX, double rectY, int rectWidth, int rectHeight) {
+        double enter = 0, exit = 1;
+        
+        double low = rectX - w, high = rectX + rectWidth;
+        if (sweepX == 0) {
+            if (startX <= low || startX >= high) return false;
+        } else {
+            double t0 = (low - startX) / sweepX, t1 = (high - startX) / sweepX;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+        
+        low = rectY - h;
+        high = rectY + rectHeight;
+        if (sweepY == 0) {
+            if (startY <= low || startY >= high) return false;
+        } else {
+            double t0 = (low - startY) / sweepY, t1 = (high - startY) / sweepY;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+        
+        // Slabs are open, so merely touching an edge doesn't block
+        return enter < exit;
+    }
+    
+    // The original line of sight: nine boxes sampled along the path. Kept as the
+    // reference for LineOfSightCheck and the benchmarks.
+    boolean isPathBlockedSampled(Player player, SpatialGrid<Obstacle> obstacles, double x, double y, int width) {
         // Create a line from enemy to player
         double dx = player.getX() - x;
         double dy = player.getY() - y;
-        double distance = Math.sqrt(dx * dx + dy * dy);
         
         // Check several points along the path
         int checkPoints = 10;
@@ -114,15 +208,16 @@ public class Enemy {
             double checkX = x + (dx * i) / checkPoints;
             double checkY = y + (dy * i) / checkPoints;
             
-            java.awt.Rectangle checkBounds = new java.awt.Rectangle(
-                (int)checkX,
-                (int)checkY,
-                type == EnemyType.HUNTER_BOT ? SIZE + 10 : SIZE,
+            Bounds checkBounds = probe.set(
+                checkX,
+                checkY,
+                width,
                 SIZE
             );
             
-            for (Obstacle obstacle : obstacles) {
-                if (obstacle.collidesWithRect(checkBounds)) {
+            int candidates = obstacles.query(checkBounds.x, checkBounds.y, checkBounds.width, checkBounds.height);
+            for (int j = 0; j < candidates; j++) {
+                if (obstacles.get(j).collidesWithRect(checkBounds)) {
                     return true;
                 }
             }
@@ -131,38 +226,52 @@ public class Enemy {
         return false;
     }
     
-    public void render(java.awt.Graphics2D g2d) {
+    public void render(java.awt.Graphics2D g2d, double alpha) {
+        paint(g2d, getType(), getRenderX(alpha), getRenderY(alpha));
+    }
+    
+    static void paint(java.awt.Graphics2D g2d, EnemyType type, int drawX, int drawY) {
         switch (type) {
             case SECURITY_DRONE -> {
                 g2d.setColor(java.awt.Color.RED);
-                g2d.fillOval((int)x, (int)y, SIZE, SIZE);
+                g2d.fillOval(drawX, drawY, SIZE, SIZE);
             }
             case HUNTER_BOT -> {
                 g2d.setColor(java.awt.Color.ORANGE);
-                g2d.fillRect((int)x, (int)y, SIZE + 10, SIZE);
+                g2d.fillRect(drawX, drawY, SIZE + 10, SIZE);
             }
             case TURRET -> {
                 g2d.setColor(java.awt.Color.YELLOW);
-                g2d.fillRect((int)x, (int)y, SIZE, SIZE);
+                g2d.fillRect(drawX, drawY, SIZE, SIZE);
             }
         }
     }
     
     public boolean collidesWith(Player player) {
-        return new java.awt.Rectangle(
-            (int)x, 
-            (int)y, 
-            type == EnemyType.HUNTER_BOT ? SIZE + 10 : SIZE, 
-            SIZE
-        ).intersects(player.getBounds());
+        return getBounds().intersects(player.getBounds());
+    }
+    
+    public Bounds getBounds() {
+        return bounds.set(
+            store.x[slot], 
+            store.y[slot], 
+            store.width[slot], 
+            store.height[slot]
+        );
     }
     
     public boolean isOffScreen() {
-        return x + SIZE < 0 || x > GamePanel.getPanelWidth() ||
-               y + SIZE < 0 || y > GamePanel.getPanelHeight();
+        double x = store.x[slot];
+        double y = store.y[slot];
+        return x + SIZE < 0 || x > GameWorld.WIDTH ||
+               y + SIZE < 0 || y > GameWorld.HEIGHT;
     }
     
-    public double getX() { return x; }
-    public double getY() { return y; }
-    public EnemyType getType() { return type; }
+    public double getX() { return store.x[slot]; }
+    public double getY() { return store.y[slot]; }
+    public double getVelocityX() { return store.velocityX[slot]; }
+    public double getVelocityY() { return store.velocityY[slot]; }
+    public int getWidth() { return store.width[slot]; }
+    public int getHeight() { return store.height[slot]; }
+    public EnemyType getType() { return TYPES[store.type[slot]]; }
 }
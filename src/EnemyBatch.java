@@ -0,0 +1,124 @@
+// Updates every enemy in a store in one pass, with the same results as calling
+// Enemy.update on each. The arithmetic (integration, edge bounce, collision
+// response, speed limits) runs over the store's columns in bulk; the grid
+// probes and hunter line of sight stay per enemy in between. Enemies never
+// look at each other, so splitting the work into passes doesn't change
+// anything. create() picks the Vector API kernel when it was built in and
+// jdk.incubator.vector is available (unless -Dneonrunner.scalar=true), and this
+// scalar one otherwise.
+public class EnemyBatch {
+    private static final int TYPE_SECURITY_DRONE = Enemy.EnemyType.SECURITY_DRONE.ordinal();
+    private static final int TYPE_HUNTER_BOT = Enemy.EnemyType.HUNTER_BOT.ordinal();
+    private static final int TYPE_TURRET = Enemy.EnemyType.TURRET.ordinal();
+    private static final java.lang.reflect.Constructor<?> VECTOR_KERNEL = findVectorKernel();
+
+    // Scratch columns, grown with the store
+    protected double[] nextX = new double[16];
+    protected double[] nextY = new double[16];
+    protected boolean[] collided = new boolean[16];
+    protected boolean[] drones = new boolean[16];
+    protected boolean[] turrets = new boolean[16];
+    private final Bounds probe = new Bounds();
+
+    public static EnemyBatch create() {
+        if (VECTOR_KERNEL != null) {
+            try {
+                return (EnemyBatch) VECTOR_KERNEL.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return new EnemyBatch();
+    }
+
+    private static java.lang.reflect.Constructor<?> findVectorKernel() {
+        if (Boolean.getBoolean("neonrunner.scalar") || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return Class.forName("VectorEnemyBatch").getDeclaredConstructor();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null; // Built without the vector profile
+        }
+    }
+
+    public String getName() {
+        return "scalar";
+    }
+
+    public void update(EntityStore<Enemy> enemies, Player player, SpatialGrid<Obstacle> obstacles) {
+        int count = enemies.size();
+        if (count > nextX.length) {
+            int capacity = Math.max(count, nextX.length * 2);
+            nextX = new double[capacity];
+            nextY = new double[capacity];
+            collided = new boolean[capacity];
+            drones = new boolean[capacity];
+            turrets = new boolean[capacity];
+        }
+
+        advance(enemies, count);
+
+        int[] type = enemies.type;
+        int[] width = enemies.width;
+        for (int i = 0; i < count; i++) {
+            collided[i] = Enemy.wouldCollide(obstacles, probe, nextX[i], nextY[i], width[i]);
+            drones[i] = type[i] == TYPE_SECURITY_DRONE;
+            turrets[i] = type[i] == TYPE_TURRET;
+        }
+
+        resolve(enemies, count);
+
+        // Hunters that moved turn towards the player when they can see it
+        double[] x = enemies.x, y = enemies.y, velocityY = enemies.velocityY;
+        for (int i = 0; i < count; i++) {
+            if (type[i] == TYPE_HUNTER_BOT && !collided[i]
+                    && !enemies.get(i).isPathBlocked(player, obstacles, x[i], y[i], width[i])) {
+                velocityY[i] = Math.signum(player.getY() - y[i]) * Enemy.BASE_SPEED * 0.5;
+            }
+        }
+    }
+
+    // previous = position, next = position + velocity
+    protected void advance(EntityStore<?> s, int count) {
+        advance(s, 0, count);
+    }
+
+    protected final void advance(EntityStore<?> s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            s.previousX[i] = s.x[i];
+            s.previousY[i] = s.y[i];
+            nextX[i] = s.x[i] + s.velocityX[i];
+            nextY[i] = s.y[i] + s.velocityY[i];
+        }
+    }
+
+    // Moves enemies that are free to, bounces drones off the edges, turns back
+    // or stops the ones that would collide, then applies the speed limits
+    protected void resolve(EntityStore<?> s, int count) {
+        resolve(s, 0, count);
+    }
+
+    protected final void resolve(EntityStore<?> s, int from, int to) {
+        double limit = Enemy.BASE_SPEED;
+        for (int i = from; i < to; i++) {
+            double velocityX = s.velocityX[i];
+            double velocityY = s.velocityY[i];
+            if (!collided[i]) {
+                s.x[i] = nextX[i];
+                s.y[i] = nextY[i];
+                if (drones[i] && (nextY[i] <= 0 || nextY[i] >= GameWorld.HEIGHT - Enemy.SIZE)) {
+                    velocityY = -velocityY;
+                }
+            } else if (turrets[i]) {
+                velocityX = 0;
+                velocityY = 0;
+            } else {
+                velocityX *= -0.5;
+                velocityY *= -0.5;
+            }
+            s.velocityX[i] = Math.max(-limit, Math.min(limit, velocityX));
+            s.velocityY[i] = Math.max(-limit, Math.min(limit, velocityY));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+// Handle onto one row of an EntityStore. The store moves rows around on
+// removal and recycles handles, so a handle is only meaningful while alive.
+public abstract class Entity {
+    EntityStore<?> store;
+    int slot = -1;
+
+    public boolean isAlive() {
+        return slot >= 0;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    // Position interpolated between the last two ticks
+    public int getRenderX(double alpha) {
+        double previous = store.previousX[slot];
+        return (int)(previous + (store.x[slot] - previous) * alpha);
+    }
+
+    public int getRenderY(double alpha) {
+        double previous = store.previousY[slot];
+        return (int)(previous + (store.y[slot] - previous) * alpha);
+    }
+}
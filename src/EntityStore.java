@@ -0,0 +1,176 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+// Structure-of-arrays storage for one kind of entity. Live rows are kept
+// dense in [0, size) so updates scan the columns sequentially; removal swaps
+// the last row into the hole and handles are pooled on a free list, so the
+// spawn/despawn cycle allocates nothing once the store has warmed up.
+public class EntityStore<T extends Entity> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int ROW_BYTES = 7 * Double.BYTES + 4 * Integer.BYTES;
+
+    double[] x, y;
+    double[] previousX, previousY;
+    double[] velocityX, velocityY;
+    double[] phase; // Per-kind animation state
+    int[] width, height;
+    int[] type;
+    int[] flags;
+
+    private final Supplier<T> factory;
+    private Object[] handles;
+    private Object[] free;
+    private int freeCount;
+    private int size;
+
+    public EntityStore(Supplier<T> factory) {
+        this.factory = factory;
+        x = new double[INITIAL_CAPACITY];
+        y = new double[INITIAL_CAPACITY];
+        previousX = new double[INITIAL_CAPACITY];
+        previousY = new double[INITIAL_CAPACITY];
+        velocityX = new double[INITIAL_CAPACITY];
+        velocityY = new double[INITIAL_CAPACITY];
+        phase = new double[INITIAL_CAPACITY];
+        width = new int[INITIAL_CAPACITY];
+        height = new int[INITIAL_CAPACITY];
+        type = new int[INITIAL_CAPACITY];
+        flags = new int[INITIAL_CAPACITY];
+        handles = new Object[INITIAL_CAPACITY];
+        free = new Object[INITIAL_CAPACITY];
+    }
+
+    // Claims a zeroed row; the caller fills it in through the returned handle
+    @SuppressWarnings("unchecked")
+    public T spawn() {
+        if (size == handles.length) {
+            grow();
+        }
+        T handle = freeCount > 0 ? (T) free[--freeCount] : factory.get();
+        free[freeCount] = null;
+        int slot = size++;
+        handle.store = this;
+        handle.slot = slot;
+        handles[slot] = handle;
+        clearRow(slot);
+        return handle;
+    }
+
+    public void remove(T handle) {
+        if (handle.store == this && handle.slot >= 0) {
+            removeAt(handle.slot);
+        }
+    }
+
+    public void removeAt(int slot) {
+        Entity removed = (Entity) handles[slot];
+        int last = --size;
+        if (slot != last) {
+            copyRow(last, slot);
+            Entity moved = (Entity) handles[last];
+            moved.slot = slot;
+            handles[slot] = moved;
+        }
+        handles[last] = null;
+        removed.slot = -1;
+        free[freeCount++] = removed;
+    }
+
+    public void clear() {
+        while (size > 0) {
+            removeAt(size - 1);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int slot) {
+        return (T) handles[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    int snapshotSize() {
+        return Integer.BYTES + size * ROW_BYTES;
+    }
+
+    // Rows go out in slot order, so the restored store iterates like the saved one
+    void save(ByteBuffer buffer) {
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putDouble(x[i]).putDouble(y[i]).putDouble(previousX[i]).putDouble(previousY[i])
+                .putDouble(velocityX[i]).putDouble(velocityY[i]).putDouble(phase[i])
+                .putInt(width[i]).putInt(height[i]).putInt(type[i]).putInt(flags[i]);
+        }
+    }
+
+    void restore(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        clear();
+        for (int i = 0; i < count; i++) {
+            spawn();
+            x[i] = buffer.getDouble();
+            y[i] = buffer.getDouble();
+            previousX[i] = buffer.getDouble();
+            previousY[i] = buffer.getDouble();
+            velocityX[i] = buffer.getDouble();
+            velocityY[i] = buffer.getDouble();
+            phase[i] = buffer.getDouble();
+            width[i] = buffer.getInt();
+            height[i] = buffer.getInt();
+            type[i] = buffer.getInt();
+            flags[i] = buffer.getInt();
+        }
+    }
+
+    private void copyRow(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        previousX[to] = previousX[from];
+        previousY[to] = previousY[from];
+        velocityX[to] = velocityX[from];
+        velocityY[to] = velocityY[from];
+        phase[to] = phase[from];
+        width[to] = width[from];
+        height[to] = height[from];
+        type[to] = type[from];
+        flags[to] = flags[from];
+    }
+
+    private void clearRow(int slot) {
+        x[slot] = 0;
+        y[slot] = 0;
+        previousX[slot] = 0;
+        previousY[slot] = 0;
+        velocityX[slot] = 0;
+        velocityY[slot] = 0;
+        phase[slot] = 0;
+        width[slot] = 0;
+        height[slot] = 0;
+        type[slot] = 0;
+        flags[slot] = 0;
+    }
+
+    private void grow() {
+        int capacity = handles.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        phase = Arrays.copyOf(phase, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        type = Arrays.copyOf(type, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        handles = Arrays.copyOf(handles, capacity);
+        free = Arrays.copyOf(free, capacity);
+    }
+}
@@ -0,0 +1,185 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+// Renders worlds without a display and writes the frames from encoder
+// threads: either a PNG per frame into a directory, or one raw rgb24 stream
+// that ffmpeg turns into video:
+//   ffmpeg -f rawvideo -pixel_format rgb24 -video_size 800x600 -framerate 60 -i run.rgb run.mp4
+// Raw frames are written at their own offset, so encoders never wait on each
+// other. A fixed pool of images bounds memory: when the encoders fall behind,
+// record() waits for an image to come back instead of queueing more frames.
+// Needs no display, so it also runs with -Djava.awt.headless=true.
+public class FrameRecorder implements AutoCloseable {
+    public enum Format { PNG, RAW }
+
+    private static final int FRAME_BYTES = GameWorld.WIDTH * GameWorld.HEIGHT * 3;
+    private static final float PNG_QUALITY = 0.75f; // Lighter deflate: a third faster, files a little larger
+
+    private final Path output;
+    private final Format format;
+    private final WorldRenderer renderer = new WorldRenderer();
+    private final BlockingQueue<Frame> free;
+    private final BlockingQueue<Frame> filled;
+    private final Frame end = new Frame(null);
+    private final Thread[] encoders;
+    private final FileChannel raw;
+    private volatile IOException failure;
+    private long frames;
+    private long stallNanos;
+
+    private static final class Frame {
+        final BufferedImage image;
+        final Graphics2D graphics;
+        long index;
+
+        Frame(BufferedImage image) {
+            this.image = image;
+            this.graphics = image != null ? image.createGraphics() : null;
+        }
+    }
+
+    // PNG writes output/frame-000000.png onwards, RAW writes the single file output
+    public FrameRecorder(Path output, Format format, int encoderThreads) throws IOException {
+        this.output = output;
+        this.format = format;
+        int pooledFrames = 2 * encoderThreads + 1;
+        free = new ArrayBlockingQueue<>(pooledFrames);
+        filled = new ArrayBlockingQueue<>(pooledFrames + 1);
+        for (int i = 0; i < pooledFrames; i++) {
+            free.add(new Frame(new BufferedImage(GameWorld.WIDTH, GameWorld.HEIGHT, BufferedImage.TYPE_INT_RGB)));
+        }
+        if (format == Format.RAW) {
+            raw = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        } else {
+            Files.createDirectories(output);
+            raw = null;
+        }
+        encoders = new Thread[encoderThreads];
+        for (int i = 0; i < encoders.length; i++) {
+            encoders[i] = new Thread(new Encoder(), "frame-encoder-" + i);
+            encoders[i].setDaemon(true);
+            encoders[i].start();
+        }
+    }
+
+    // Draws the world as of its last tick and queues it for writing
+    public void record(GameWorld world) throws IOException, InterruptedException {
+        if (failure != null) {
+            throw new IOException("Frame encoder failed", failure);
+        }
+        Frame frame = free.poll();
+        if (frame == null) {
+            long start = System.nanoTime();
+            frame = free.take();
+            stallNanos += System.nanoTime() - start;
+        }
+        renderer.render(frame.graphics, world, 1.0);
+        frame.index = frames++;
+        filled.put(frame);
+    }
+
+    public long getFrames() { return frames; }
+
+    // Time record() spent waiting on the encoders
+    public long getStallNanos() { return stallNanos; }
+
+    // Waits for every recorded frame to be written
+    @Override
+    public void close() throws IOException {
+        try {
+            filled.put(end);
+            for (Thread encoder : encoders) {
+                encoder.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (raw != null) {
+                raw.close();
+            }
+        }
+        if (failure != null) {
+            throw new IOException("Frame encoder failed", failure);
+        }
+    }
+
+    private class Encoder implements Runnable {
+        private final ByteBuffer rawBuffer = format == Format.RAW ? ByteBuffer.allocateDirect(FRAME_BYTES) : null;
+        private final ImageWriter png = format == Format.PNG ? ImageIO.getImageWritersByFormatName("png").next() : null;
+        private final ImageWriteParam pngParam;
+
+        Encoder() {
+            if (png != null) {
+                pngParam = png.getDefaultWriteParam();
+                pngParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                pngParam.setCompressionQuality(PNG_QUALITY);
+            } else {
+                pngParam = null;
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Frame frame;
+                while ((frame = filled.take()) != end) {
+                    // After a failure frames are only recycled, so record() can't block forever
+                    if (failure == null) {
+                        try {
+                            write(frame);
+                        } catch (IOException e) {
+                            failure = e;
+                        }
+                    }
+                    free.put(frame);
+                }
+                filled.put(end); // For the other encoders
+            } catch (InterruptedException e) {
+                // Daemon thread; nothing left to hand back to
+            } finally {
+                if (png != null) {
+                    png.dispose();
+                }
+            }
+        }
+
+        private void write(Frame frame) throws IOException {
+            if (format == Format.PNG) {
+                Path file = output.resolve(String.format("frame-%06d.png", frame.index));
+                try (OutputStream stream = Files.newOutputStream(file);
+                     ImageOutputStream out = new MemoryCacheImageOutputStream(stream)) {
+                    png.setOutput(out);
+                    png.write(null, new IIOImage(frame.image, null, null), pngParam);
+                }
+                return;
+            }
+            int[] pixels = ((DataBufferInt) frame.image.getRaster().getDataBuffer()).getData();
+            rawBuffer.clear();
+            for (int pixel : pixels) {
+                rawBuffer.put((byte) (pixel >> 16)).put((byte) (pixel >> 8)).put((byte) pixel);
+            }
+            rawBuffer.flip();
+            long position = frame.index * FRAME_BYTES;
+            while (rawBuffer.hasRemaining()) {
+                position += raw.write(rawBuffer, position);
+            }
+        }
+    }
+}
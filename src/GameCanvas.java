@@ -0,0 +1,125 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+
+// Active rendering: the game loop thread draws straight into a BufferStrategy
+// and flips, bypassing Swing's repaint queue and the EDT entirely. With dirty
+// tracking on, only tiles that changed since the last frame are redrawn; that
+// needs a back buffer that survives show(), so it falls back to full redraws
+// when the platform hands out an undefined one.
+public class GameCanvas extends Canvas implements GameView {
+    private static final long serialVersionUID = 1L;
+
+    private final GameSession session;
+    private final GameLoop gameLoop;
+    private final WorldRenderer renderer;
+    private final DirtyRegions dirtyRegions;
+    private volatile boolean backBufferPreserved;
+    private GameWorld.GameState lastState;
+
+    public GameCanvas(boolean dirtyTracking) {
+        session = new GameSession();
+        renderer = new WorldRenderer();
+        dirtyRegions = dirtyTracking ? new DirtyRegions(GameWorld.WIDTH, GameWorld.HEIGHT) : null;
+
+        setPreferredSize(new Dimension(GameWorld.WIDTH, GameWorld.HEIGHT));
+        setBackground(Color.BLACK);
+        setIgnoreRepaint(true);
+        setFocusable(true);
+        addMouseListener(session);
+        addKeyListener(session);
+
+        gameLoop = new GameLoop(session::tick, this::renderFrame);
+        gameLoop.start();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        try {
+            createBufferStrategy(2, new BufferCapabilities(
+                new ImageCapabilities(true), new ImageCapabilities(true), BufferCapabilities.FlipContents.COPIED));
+        } catch (AWTException e) {
+            createBufferStrategy(2);
+        }
+        BufferCapabilities capabilities = getBufferStrategy().getCapabilities();
+        backBufferPreserved = !capabilities.isPageFlipping()
+            || capabilities.getFlipContents() == BufferCapabilities.FlipContents.COPIED;
+    }
+
+    // Runs on the game loop thread
+    private void renderFrame() {
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) return; // Not displayable yet
+
+        GameWorld world = session.getWorld();
+        double alpha = gameLoop.getAlpha();
+        boolean dirty = dirtyRegions != null && backBufferPreserved;
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D)strategy.getDrawGraphics();
+                try {
+                    long start = System.nanoTime();
+                    ProfilerOverlay overlay = session.getOverlay();
+                    LeaderboardOverlay leaderboard = session.getLeaderboard();
+                    synchronized (world) {
+                        if (dirty) {
+                            renderDirty(g2d, world, alpha, overlay, leaderboard);
+                        } else {
+                            renderer.render(g2d, world, alpha);
+                        }
+                    }
+                    session.getProfiler().record(TickProfiler.Phase.RENDER, System.nanoTime() - start);
+                    g2d.setClip(null);
+                    if (leaderboard != null) {
+                        leaderboard.render(g2d);
+                    }
+                    if (overlay != null) {
+                        overlay.render(g2d);
+                    }
+                } finally {
+                    g2d.dispose();
+                }
+                if (dirty && strategy.contentsRestored()) {
+                    dirtyRegions.markAll();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+            if (dirty && strategy.contentsLost()) {
+                dirtyRegions.markAll();
+            }
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+
+    private void renderDirty(Graphics2D g2d, GameWorld world, double alpha, ProfilerOverlay overlay,
+                             LeaderboardOverlay leaderboard) {
+        // State changes show or hide the centred game over text
+        if (world.getState() != lastState) {
+            lastState = world.getState();
+            dirtyRegions.markAll();
+        }
+        renderer.markDirty(dirtyRegions, world, alpha);
+        // Overlays are drawn over the world afterwards, which must be redrawn beneath them
+        if (overlay != null) {
+            dirtyRegions.mark(ProfilerOverlay.X, ProfilerOverlay.Y, ProfilerOverlay.WIDTH, ProfilerOverlay.HEIGHT);
+        }
+        if (leaderboard != null) {
+            dirtyRegions.mark(LeaderboardOverlay.X, LeaderboardOverlay.Y, LeaderboardOverlay.WIDTH, LeaderboardOverlay.HEIGHT);
+        }
+        int count = dirtyRegions.collect();
+        for (int i = 0; i < count; i++) {
+            g2d.setClip(dirtyRegions.getX(i), dirtyRegions.getY(i), dirtyRegions.getWidth(i), dirtyRegions.getHeight(i));
+            renderer.render(g2d, world, alpha);
+        }
+    }
+
+    @Override
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+
+    @Override
+    public GameSession getSession() {
+        return session;
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.concurrent.locks.LockSupport;
+
+public class GameLoop implements Runnable {
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long TICK_NANOS = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final long MAX_FRAME_NANOS = 250_000_000L; // Drop time after long stalls instead of spiralling
+
+    private final Runnable tick;
+    private final Runnable render;
+    private final long frameNanos;
+    private final TimingStats tickStats;
+    private final TimingStats frameStats;
+    private volatile boolean running;
+    private volatile double alpha;
+    private Thread thread;
+
+    public GameLoop(Runnable tick, Runnable render) {
+        this(tick, render, TICKS_PER_SECOND);
+    }
+
+    public GameLoop(Runnable tick, Runnable render, int framesPerSecond) {
+        this.tick = tick;
+        this.render = render;
+        this.frameNanos = 1_000_000_000L / framesPerSecond;
+        this.tickStats = new TimingStats("tick");
+        this.frameStats = new TimingStats("frame");
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "game-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread = null;
+        }
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        long nextFrame = previous;
+
+        while (running) {
+            long now = System.nanoTime();
+            long elapsed = Math.min(now - previous, MAX_FRAME_NANOS);
+            previous = now;
+            accumulator += elapsed;
+
+            // Advance the simulation in fixed steps regardless of frame rate
+            while (accumulator >= TICK_NANOS) {
+                long tickStart = System.nanoTime();
+                tick.run();
+                tickStats.record(System.nanoTime() - tickStart);
+                accumulator -= TICK_NANOS;
+            }
+
+            // Fraction of the next tick already elapsed, used to interpolate rendering
+            alpha = accumulator / (double) TICK_NANOS;
+            render.run();
+            frameStats.record(elapsed);
+
+            nextFrame += frameNanos;
+            long sleep;
+            while (running && (sleep = nextFrame - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+            if (System.nanoTime() - nextFrame > frameNanos) {
+                nextFrame = System.nanoTime(); // Too far behind, don't try to catch up frames
+            }
+        }
+    }
+
+    public double getAlpha() { return alpha; }
+    public TimingStats getTickStats() { return tickStats; }
+    public TimingStats getFrameStats() { return frameStats; }
+}
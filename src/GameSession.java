@@ -0,0 +1,200 @@
+import java.awt.event.*;
+
+// The running game behind a window: owns the world, turns mouse and keyboard
+// input into simulation input and advances one tick at a time on the game
+// loop thread. Shared by the Swing panel and the active-rendering canvas.
+public class GameSession implements MouseListener, KeyListener {
+    private static final int INPUT_CAPACITY = 64;
+    private static final int REWIND_TICKS = 2 * GameLoop.TICKS_PER_SECOND;
+    private static final long AUTOPILOT_BUDGET_NANOS = 6_000_000; // Leaves most of a tick for rendering
+    
+    private final GameWorld world;
+    private final InputQueue inputs;
+    private final TimingStats inputLatency;
+    private final TickProfiler profiler;
+    private final ProfilerOverlay overlay;
+    private final HighScoreStore highScores;
+    private final LeaderboardOverlay leaderboard;
+    private final SnapshotRing history; // Null unless rewinding is enabled
+    private MonteCarloPilot autopilot; // Created on first use
+    private volatile boolean autopilotOn;
+    private volatile boolean overlayVisible;
+    private boolean spaceDown; // EDT only, filters key auto-repeat
+    
+    public GameSession() {
+        world = new GameWorld(java.util.concurrent.ThreadLocalRandom.current().nextLong(), true);
+        world.setSoundSink(SoundManager::playSound);
+        SoundManager.start();
+        inputs = new InputQueue(INPUT_CAPACITY);
+        inputLatency = new TimingStats("input");
+        profiler = new TickProfiler();
+        world.setProfiler(profiler);
+        overlay = new ProfilerOverlay(profiler, inputLatency);
+        highScores = HighScoreStore.openDefault();
+        leaderboard = highScores != null ? new LeaderboardOverlay(highScores) : null;
+        // -Dneonrunner.rewind=true: R goes back two seconds, keeping ten seconds of history
+        history = Boolean.getBoolean("neonrunner.rewind") ? new SnapshotRing(40, GameLoop.TICKS_PER_SECOND / 4) : null;
+    }
+    
+    // Runs on the game loop thread. Inputs queued on the EDT since the last tick
+    // all take effect now, so they never land halfway through a tick
+    public void tick() {
+        // The search runs on copies, so it doesn't hold up painting
+        Boolean autoJump = null;
+        long searchedTick = 0, searchedSeed = 0;
+        if (autopilotOn) {
+            if (autopilot == null) {
+                autopilot = new MonteCarloPilot(System.nanoTime(), 256, AUTOPILOT_BUDGET_NANOS,
+                    Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            }
+            synchronized (world) {
+                if (world.getState() == GameWorld.GameState.RUNNING) {
+                    autopilot.observe(world);
+                    searchedTick = world.getTick();
+                    searchedSeed = world.getSeed();
+                    autoJump = Boolean.FALSE;
+                }
+            }
+            if (autoJump != null) {
+                autoJump = autopilot.decide();
+            }
+        }
+        synchronized (world) {
+            boolean jump = false;
+            long now = System.nanoTime();
+            for (int kind = inputs.poll(); kind != InputQueue.NONE; kind = inputs.poll()) {
+                inputLatency.record(now - inputs.getPolledTimestamp());
+                if (kind == InputQueue.REWIND) {
+                    history.rewind(world, REWIND_TICKS);
+                } else if (world.getState() == GameWorld.GameState.RUNNING) {
+                    if (!jump) {
+                        jump = true;
+                        SoundManager.playSound("jump");
+                    }
+                } else {
+                    world.reset();
+                    SoundManager.playSound("restart");
+                }
+            }
+            boolean wasRunning = world.getState() == GameWorld.GameState.RUNNING;
+            // Overrides the player, unless a restart or rewind came in since the search
+            if (autoJump != null && wasRunning && world.getTick() == searchedTick && world.getSeed() == searchedSeed) {
+                if (autoJump && !jump) {
+                    SoundManager.playSound("jump");
+                }
+                jump = autoJump;
+            }
+            world.step(jump);
+            if (wasRunning && world.getState() == GameWorld.GameState.GAME_OVER) {
+                saveReplay(world.toReplay());
+                if (highScores != null) {
+                    highScores.submit(world.getScore(), world.getSeed(), world.getTick());
+                    leaderboard.setLastRun(world.getSeed(), world.getTick());
+                }
+            }
+            if (history != null) {
+                history.record(world);
+            }
+        }
+    }
+    
+    // Replays are only kept when -Dneonrunner.replays=<dir> is given
+    private void saveReplay(Replay replay) {
+        String directory = System.getProperty("neonrunner.replays");
+        if (directory == null) return;
+        
+        try {
+            java.nio.file.Path dir = java.nio.file.Paths.get(directory);
+            java.nio.file.Files.createDirectories(dir);
+            java.nio.file.Files.write(dir.resolve(String.format("run-%016x.nrr", replay.getSeed())), replay.toBytes());
+        } catch (java.io.IOException e) {
+            System.err.println("Could not save replay: " + e.getMessage());
+        }
+    }
+    
+    // Renderers must hold the world's monitor while drawing
+    public GameWorld getWorld() {
+        return world;
+    }
+    
+    // Time from an input event to the tick that applied it
+    public TimingStats getInputLatency() {
+        return inputLatency;
+    }
+    
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+    
+    // Null while the overlay is toggled off
+    public ProfilerOverlay getOverlay() {
+        return overlayVisible ? overlay : null;
+    }
+    
+    // Null unless the game is over and high scores are available
+    public LeaderboardOverlay getLeaderboard() {
+        return leaderboard != null && world.getState() == GameWorld.GameState.GAME_OVER ? leaderboard : null;
+    }
+    
+    public MonteCarloPilot getAutopilot() {
+        return autopilot;
+    }
+    
+    // Lets queued high scores reach the disk
+    public void close() {
+        if (autopilot != null) {
+            autopilot.shutdown();
+        }
+        if (highScores == null) return;
+        try {
+            highScores.close();
+        } catch (java.io.IOException e) {
+            System.err.println("Could not close high scores: " + e.getMessage());
+        }
+    }
+    
+    private void press() {
+        inputs.offer(InputQueue.PRESS, System.nanoTime());
+    }
+    
+    @Override
+    public void mousePressed(MouseEvent e) {
+        press();
+    }
+    
+    @Override
+    public void keyPressed(KeyEvent e) {
+        if (e.getKeyCode() == KeyEvent.VK_SPACE && !spaceDown) {
+            spaceDown = true;
+            press();
+        } else if (e.getKeyCode() == KeyEvent.VK_R && history != null) {
+            inputs.offer(InputQueue.REWIND, System.nanoTime());
+        } else if (e.getKeyCode() == KeyEvent.VK_A) {
+            autopilotOn = !autopilotOn;
+        } else if (e.getKeyCode() == KeyEvent.VK_F3) {
+            overlayVisible = !overlayVisible;
+        }
+    }
+    
+    @Override
+    public void keyReleased(KeyEvent e) {
+        if (e.getKeyCode() == KeyEvent.VK_SPACE) {
+            spaceDown = false;
+        }
+    }
+    
+    @Override
+    public void keyTyped(KeyEvent e) {}
+    
+    @Override
+    public void mouseReleased(MouseEvent e) {}
+    
+    @Override
+    public void mouseEntered(MouseEvent e) {}
+    
+    @Override
+    public void mouseExited(MouseEvent e) {}
+    
+    @Override
+    public void mouseClicked(MouseEvent e) {}
+}
@@ -0,0 +1,5 @@
+// A component that shows a running game
+public interface GameView {
+    GameLoop getGameLoop();
+    GameSession getSession();
+}
@@ -0,0 +1,358 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+public class GameWorld {
+    public static final int WIDTH = 800;
+    public static final int HEIGHT = 600;
+    private static final int OBSTACLE_WIDTH = 80;
+    static final int GAP_HEIGHT = 200;
+    private static final double OBSTACLE_SPEED = 3.0;
+    private static final int MAX_ENEMIES = 5;
+    private static final int MAX_POWERUPS = 2;
+    private static final double GRID_CELL_SIZE = 100.0;
+    private static final Enemy.EnemyType[] ENEMY_TYPES = Enemy.EnemyType.values();
+    private static final PowerUp.PowerUpType[] POWER_UP_TYPES = PowerUp.PowerUpType.values();
+    private static final GameState[] GAME_STATES = GameState.values();
+    private static final DeathCause[] DEATH_CAUSES = DeathCause.values();
+    private static final int SNAPSHOT_MAGIC = 0x4E525753; // "NRWS"
+    private static final int SNAPSHOT_HEADER_BYTES = 3 * Integer.BYTES + 2 * Long.BYTES + 2;
+
+    private final Player player;
+    private final EntityStore<Enemy> enemies;
+    private final EntityStore<Obstacle> obstacles;
+    private final EntityStore<PowerUp> powerUps;
+    private final SpatialGrid<Obstacle> obstacleGrid;
+    private final SpatialGrid<Enemy> enemyGrid;
+    private final SpatialGrid<PowerUp> powerUpGrid;
+    private final EnemyBatch enemyBatch;
+    private final LevelStream level;
+    private long seed;
+    private long[] jumpTicks; // Input log, replayable together with the seed
+    private int jumpCount;
+    private GameState gameState;
+    private DeathCause deathCause;
+    private int score;
+    private long tick;
+    private Consumer<String> soundSink = name -> {};
+    private TickProfiler profiler;
+
+    public enum GameState {
+        RUNNING,
+        GAME_OVER
+    }
+
+    public enum DeathCause {
+        NONE,
+        OBSTACLE,
+        ENEMY
+    }
+
+    public GameWorld() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    public GameWorld(long seed) {
+        this(seed, false);
+    }
+
+    // Prefetching generates upcoming level chunks on a background thread; it
+    // pays off for real-time play, while batch simulation generates inline
+    public GameWorld(long seed, boolean prefetchLevel) {
+        player = new Player(100, HEIGHT / 2);
+        level = new LevelStream(prefetchLevel);
+        jumpTicks = new long[64];
+        enemies = new EntityStore<>(Enemy::new);
+        obstacles = new EntityStore<>(Obstacle::new);
+        powerUps = new EntityStore<>(PowerUp::new);
+        obstacleGrid = createGrid();
+        enemyGrid = createGrid();
+        powerUpGrid = createGrid();
+        enemyBatch = EnemyBatch.create();
+        reset(seed);
+    }
+
+    // Entities spawn just past the right edge and leave past the left one
+    private static <T> SpatialGrid<T> createGrid() {
+        return new SpatialGrid<>(GRID_CELL_SIZE, -GRID_CELL_SIZE, 0, WIDTH + 2 * GRID_CELL_SIZE, HEIGHT);
+    }
+
+    // Sounds are reported by name so the simulation never touches javax.sound
+    public void setSoundSink(Consumer<String> soundSink) {
+        this.soundSink = soundSink;
+    }
+
+    // Headless runs leave this null and pay nothing for it
+    public void setProfiler(TickProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public void reset() {
+        reset(ThreadLocalRandom.current().nextLong());
+    }
+
+    // Starts a fresh run; the same seed and inputs always replay identically
+    public void reset(long seed) {
+        this.seed = seed;
+        level.reset(seed);
+        jumpCount = 0;
+        tick = 0;
+
+        player.reset(100, HEIGHT / 2);
+        enemies.clear();
+        obstacles.clear();
+        powerUps.clear();
+        obstacleGrid.clear();
+        enemyGrid.clear();
+        powerUpGrid.clear();
+        score = 0;
+        gameState = GameState.RUNNING;
+        deathCause = DeathCause.NONE;
+    }
+
+    public void step(boolean jump) {
+        if (gameState == GameState.RUNNING) {
+            TickProfiler profiler = this.profiler;
+            long time = profiler != null ? System.nanoTime() : 0;
+            if (jump) {
+                recordJump();
+                player.jump();
+            }
+            player.update();
+            time = lap(profiler, TickProfiler.Phase.PLAYER, time);
+            updateEnemies();
+            time = lap(profiler, TickProfiler.Phase.ENEMIES, time);
+            updateObstacles();
+            time = lap(profiler, TickProfiler.Phase.OBSTACLES, time);
+            updatePowerUps();
+            time = lap(profiler, TickProfiler.Phase.POWER_UPS, time);
+            checkCollisions();
+            time = lap(profiler, TickProfiler.Phase.COLLISIONS, time);
+            if (gameState == GameState.RUNNING) {
+                spawn();
+            }
+            lap(profiler, TickProfiler.Phase.SPAWNING, time);
+            score++;
+            tick++;
+            if (profiler != null) {
+                profiler.endTick(this);
+            }
+        }
+    }
+
+    private static long lap(TickProfiler profiler, TickProfiler.Phase phase, long start) {
+        if (profiler == null) return 0;
+        long now = System.nanoTime();
+        profiler.phase(phase, now - start);
+        return now;
+    }
+
+    private void recordJump() {
+        if (jumpCount == jumpTicks.length) {
+            jumpTicks = Arrays.copyOf(jumpTicks, jumpCount * 2);
+        }
+        jumpTicks[jumpCount++] = tick;
+    }
+
+    public Replay toReplay() {
+        return new Replay(seed, tick, score, Arrays.copyOf(jumpTicks, jumpCount));
+    }
+
+    // Bytes save() needs for the current state
+    public int snapshotSize() {
+        return SNAPSHOT_HEADER_BYTES + Player.SNAPSHOT_BYTES
+            + obstacles.snapshotSize() + enemies.snapshotSize() + powerUps.snapshotSize()
+            + jumpCount * Long.BYTES;
+    }
+
+    // Writes the simulation state at the buffer's position; restore() continues
+    // from it bit for bit. The jump log goes last, so any world restored from
+    // a snapshot, not just the one that took it, replays from toReplay()
+    public void save(ByteBuffer buffer) {
+        buffer.putInt(SNAPSHOT_MAGIC).putLong(seed).putLong(tick).putInt(score).putInt(jumpCount)
+            .put((byte) gameState.ordinal()).put((byte) deathCause.ordinal());
+        player.save(buffer);
+        obstacles.save(buffer);
+        enemies.save(buffer);
+        powerUps.save(buffer);
+        for (int i = 0; i < jumpCount; i++) {
+            buffer.putLong(jumpTicks[i]);
+        }
+    }
+
+    public void restore(ByteBuffer buffer) {
+        if (buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new IllegalArgumentException("Not a world snapshot");
+        }
+        seed = buffer.getLong();
+        tick = buffer.getLong();
+        score = buffer.getInt();
+        int jumps = buffer.getInt();
+        gameState = GAME_STATES[buffer.get()];
+        deathCause = DEATH_CAUSES[buffer.get()];
+        player.restore(buffer);
+        obstacles.restore(buffer);
+        enemies.restore(buffer);
+        powerUps.restore(buffer);
+        if (jumps > jumpTicks.length) {
+            jumpTicks = new long[Math.max(jumps, jumpTicks.length * 2)];
+        }
+        for (int i = 0; i < jumps; i++) {
+            jumpTicks[i] = buffer.getLong();
+        }
+        jumpCount = jumps;
+        level.seek(seed, tick);
+        rebuildGrids();
+    }
+
+    // Removal swaps the last row into i, which has already been visited
+    private void updateObstacles() {
+        obstacleGrid.clear();
+        for (int i = obstacles.size() - 1; i >= 0; i--) {
+            Obstacle obstacle = obstacles.get(i);
+            obstacle.scroll(OBSTACLE_SPEED);
+
+            if (obstacle.getX() + obstacle.getWidth() < 0) {
+                obstacles.removeAt(i);
+            } else {
+                insert(obstacle);
+            }
+        }
+    }
+
+    // Re-registers every entity, for callers that place entities directly
+    void rebuildGrids() {
+        obstacleGrid.clear();
+        for (int i = 0; i < obstacles.size(); i++) {
+            insert(obstacles.get(i));
+        }
+        enemyGrid.clear();
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            enemyGrid.insert(enemy, enemy.getX(), enemy.getY(), enemy.getWidth(), enemy.getHeight());
+        }
+        powerUpGrid.clear();
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
+            powerUpGrid.insert(powerUp, powerUp.getX(), powerUp.getY(), powerUp.getSize(), powerUp.getSize());
+        }
+    }
+
+    SpatialGrid<Obstacle> getObstacleGrid() { return obstacleGrid; }
+
+    private void insert(Obstacle obstacle) {
+        obstacleGrid.insert(obstacle, obstacle.getX(), obstacle.getY(), obstacle.getWidth(), obstacle.getHeight());
+    }
+
+    // Everything the level has due at this tick enters at the right edge
+    private void spawn() {
+        while (level.poll(tick)) {
+            int y = level.getPolledY();
+            switch (level.getPolledKind()) {
+                case LevelGenerator.OBSTACLE:
+                    insert(obstacles.spawn().init(WIDTH, 0, OBSTACLE_WIDTH, y));
+                    insert(obstacles.spawn().init(WIDTH, y + GAP_HEIGHT, OBSTACLE_WIDTH, HEIGHT - (y + GAP_HEIGHT)));
+                    break;
+                case LevelGenerator.ENEMY:
+                    if (enemies.size() < MAX_ENEMIES) {
+                        enemies.spawn().init(WIDTH, y, ENEMY_TYPES[level.getPolledVariant()]);
+                    }
+                    break;
+                case LevelGenerator.POWER_UP:
+                    if (powerUps.size() < MAX_POWERUPS) {
+                        powerUps.spawn().init(WIDTH, y, POWER_UP_TYPES[level.getPolledVariant()]);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void updatePowerUps() {
+        powerUpGrid.clear();
+        for (int i = powerUps.size() - 1; i >= 0; i--) {
+            PowerUp powerUp = powerUps.get(i);
+            powerUp.update();
+            if (powerUp.isOffScreen()) {
+                powerUps.removeAt(i);
+            } else {
+                powerUpGrid.insert(powerUp, powerUp.getX(), powerUp.getY(), powerUp.getSize(), powerUp.getSize());
+            }
+        }
+    }
+
+    private void updateEnemies() {
+        enemyBatch.update(enemies, player, obstacleGrid);
+        enemyGrid.clear();
+        for (int i = enemies.size() - 1; i >= 0; i--) {
+            Enemy enemy = enemies.get(i);
+            if (enemy.isOffScreen()) {
+                enemies.removeAt(i);
+            } else {
+                enemyGrid.insert(enemy, enemy.getX(), enemy.getY(), enemy.getWidth(), enemy.getHeight());
+            }
+        }
+    }
+
+    void checkCollisions() {
+        double playerX = player.getX();
+        double playerY = player.getY();
+        int playerSize = player.getSize();
+
+        // Check obstacle collisions
+        int candidates = obstacleGrid.query(playerX, playerY, playerSize, playerSize);
+        for (int i = 0; i < candidates; i++) {
+            if (obstacleGrid.get(i).collidesWith(player)) {
+                gameOver(DeathCause.OBSTACLE);
+                return;
+            }
+        }
+
+        // Check enemy collisions
+        candidates = enemyGrid.query(playerX, playerY, playerSize, playerSize);
+        for (int i = 0; i < candidates; i++) {
+            Enemy enemy = enemyGrid.get(i);
+            if (enemy.collidesWith(player)) {
+                if (!player.isInvulnerable()) {
+                    player.takeDamage();
+                    soundSink.accept("hit");
+                    if (player.getHealth() <= 0) {
+                        gameOver(DeathCause.ENEMY);
+                        return;
+                    }
+                }
+            }
+        }
+
+        // Check power-up collisions
+        candidates = powerUpGrid.query(playerX, playerY, playerSize, playerSize);
+        for (int i = 0; i < candidates; i++) {
+            PowerUp powerUp = powerUpGrid.get(i);
+            if (powerUp.collidesWith(player)) {
+                if (powerUp.getType() == PowerUp.PowerUpType.ROCKET_BOOST) {
+                    player.activateRocketBoost();
+                } else {
+                    player.restoreHealth();
+                }
+                powerUps.remove(powerUp);
+                soundSink.accept("powerup");
+            }
+        }
+    }
+
+    private void gameOver(DeathCause cause) {
+        gameState = GameState.GAME_OVER;
+        deathCause = cause;
+        soundSink.accept("gameover");
+    }
+
+    public Player getPlayer() { return player; }
+    public EntityStore<Enemy> getEnemies() { return enemies; }
+    public EntityStore<Obstacle> getObstacles() { return obstacles; }
+    public EntityStore<PowerUp> getPowerUps() { return powerUps; }
+    public GameState getState() { return gameState; }
+    public DeathCause getDeathCause() { return deathCause; }
+    public int getScore() { return score; }
+    public long getTick() { return tick; }
+    public long getSeed() { return seed; }
+}
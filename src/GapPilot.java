@@ -0,0 +1,45 @@
+// Steers toward the middle of the next obstacle gap, with a little seeded
+// jitter on the aim point so batch runs don't all play identically.
+public class GapPilot implements Pilot {
+    private static final double MAX_JITTER = 40.0;
+
+    private final GameRandom random;
+
+    public GapPilot(long seed) {
+        this.random = new GameRandom(seed);
+    }
+
+    @Override
+    public boolean shouldJump(GameWorld world) {
+        Player player = world.getPlayer();
+        double target = nextGapCenter(world) + (random.nextDouble() - 0.5) * MAX_JITTER;
+        double center = player.getY() + player.getSize() / 2.0;
+        // Jump once we sink below the aim point and are no longer rising
+        return center > target && player.getVelocityY() >= 0;
+    }
+
+    // Middle of the gap in front of the player, or of the screen if there is none
+    static double nextGapCenter(GameWorld world) {
+        Player player = world.getPlayer();
+        EntityStore<Obstacle> obstacles = world.getObstacles();
+        double nearestX = Double.MAX_VALUE;
+        double gapTop = 0;
+        double gapBottom = GameWorld.HEIGHT;
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            double right = obstacle.getX() + obstacle.getWidth();
+            if (right < player.getX() || obstacle.getX() > nearestX) continue;
+            if (obstacle.getX() < nearestX) {
+                nearestX = obstacle.getX();
+                gapTop = 0;
+                gapBottom = GameWorld.HEIGHT;
+            }
+            if (obstacle.getY() <= 0) {
+                gapTop = obstacle.getHeight();
+            } else {
+                gapBottom = obstacle.getY();
+            }
+        }
+        return (gapTop + gapBottom) / 2.0;
+    }
+}
@@ -0,0 +1,325 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+// High scores that survive crashes. A directory belongs to one store at a
+// time: it holds an exclusive lock on scores.log while open, and a second
+// store opening it, in this process or another, fails instead of
+// interleaving appends.
+//
+// scores.log is the source of truth: append-only fixed-size records, each
+// ending in a CRC32 of its contents. A torn record at the end (power loss
+// mid-write) fails its CRC and is cut off on the next open.
+//
+// scores.idx is a memory-mapped top-N table kept sorted by score, with a
+// header saying how many log records it covers and a CRC of its entries.
+// It's derived data: if it's corrupt or covers more than the log holds it is
+// rebuilt from the log, and log records past what it covers are folded in.
+//
+// submit() never blocks the game loop; a writer thread drains submissions in
+// batches, appends them, fsyncs the log once per batch and then updates the
+// index. Leaderboard reads return an immutable snapshot.
+public class HighScoreStore implements AutoCloseable {
+    private static final int RECORD_SIZE = 32; // timestamp, seed, ticks, score, crc
+    private static final int INDEX_MAGIC = 0x4E524849; // "NRHI"
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_HEADER_SIZE = 32; // magic, version, capacity, count, covered records, entries crc
+    private static final int ENTRY_SIZE = 28; // score, seed, ticks, timestamp
+    private static final int QUEUE_CAPACITY = 256;
+    private static final Entry STOP = new Entry(0, 0, 0, 0);
+    // Logs open in this JVM. File locks are per process, and closing any channel to a locked
+    // file drops the lock, so a second store here must be refused before it opens the log
+    private static final Set<Path> OPEN_LOGS = ConcurrentHashMap.newKeySet();
+
+    public static final class Entry {
+        private final int score;
+        private final long seed;
+        private final long ticks;
+        private final long timestamp;
+
+        Entry(int score, long seed, long ticks, long timestamp) {
+            this.score = score;
+            this.seed = seed;
+            this.ticks = ticks;
+            this.timestamp = timestamp;
+        }
+
+        public int getScore() { return score; }
+        public long getSeed() { return seed; }
+        public long getTicks() { return ticks; }
+        public long getTimestamp() { return timestamp; } // Epoch millis
+    }
+
+    private final int capacity;
+    private final Path logPath;
+    private final FileChannel log;
+    private final FileChannel indexChannel;
+    private final MappedByteBuffer index;
+    private final BlockingQueue<Entry> pending = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+    private final AtomicLong submitted = new AtomicLong();
+    // Held across the closed check and the offer, so nothing is queued behind STOP
+    private final Object submitLock = new Object();
+    private volatile List<Entry> top;
+    private boolean closed; // Guarded by submitLock
+    private long logRecords;
+    private long completed; // Submissions the writer is done with, guarded by this
+
+    public HighScoreStore(Path directory, int capacity) throws IOException {
+        this.capacity = capacity;
+        Files.createDirectories(directory);
+        logPath = directory.toRealPath().resolve("scores.log");
+        if (!OPEN_LOGS.add(logPath)) {
+            throw new IOException(logPath + " is in use by another store");
+        }
+        try {
+            log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException e) {
+            OPEN_LOGS.remove(logPath);
+            throw e;
+        }
+        try {
+            // Released when the log is closed
+            FileLock lock = log.tryLock();
+            if (lock == null) {
+                throw new IOException(logPath + " is in use by another process");
+            }
+            indexChannel = FileChannel.open(directory.resolve("scores.idx"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_SIZE + (long) capacity * ENTRY_SIZE);
+            index.order(ByteOrder.LITTLE_ENDIAN);
+            recover();
+        } catch (IOException | RuntimeException e) {
+            log.close(); // Frees the lock for the next attempt
+            OPEN_LOGS.remove(logPath);
+            throw e;
+        }
+
+        writer = new Thread(this::writeLoop, "high-scores");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Store under -Dneonrunner.scores=<dir>, by default ~/.neonrunner; null if it can't be opened
+    public static HighScoreStore openDefault() {
+        String directory = System.getProperty("neonrunner.scores",
+            Path.of(System.getProperty("user.home"), ".neonrunner").toString());
+        try {
+            return new HighScoreStore(Path.of(directory), 100);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("High scores disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Non-blocking; drops the score if the writer has fallen hopelessly behind
+    public boolean submit(int score, long seed, long ticks) {
+        synchronized (submitLock) {
+            if (closed || !pending.offer(new Entry(score, seed, ticks, System.currentTimeMillis()))) {
+                return false;
+            }
+            submitted.incrementAndGet();
+            return true;
+        }
+    }
+
+    // Best scores first, ties in submission order
+    public List<Entry> getTop() {
+        return top;
+    }
+
+    // Waits until everything submitted so far is on disk
+    public synchronized void flush() throws InterruptedException {
+        long target = submitted.get();
+        while (completed < target) {
+            wait();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            boolean stopping;
+            synchronized (submitLock) {
+                closed = true;
+                // Not an interrupt: that would close the log channel mid-write
+                stopping = pending.offer(STOP, 2, TimeUnit.SECONDS);
+            }
+            if (stopping) {
+                writer.join(2000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            // Still appending, so its channels stay open; they and the lock go with the process
+            System.err.println("High-score writer still busy, leaving scores.log open");
+            return;
+        }
+        index.force();
+        log.close();
+        indexChannel.close();
+        OPEN_LOGS.remove(logPath);
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            pending.drainTo(batch);
+            stopping = batch.remove(STOP);
+            try {
+                if (!batch.isEmpty()) {
+                    append(batch);
+                }
+            } catch (IOException e) {
+                System.err.println("Could not save high scores: " + e.getMessage());
+            }
+            synchronized (this) {
+                completed += batch.size();
+                notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void append(List<Entry> batch) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(batch.size() * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (Entry entry : batch) {
+            buffer.put(encode(entry));
+        }
+        buffer.flip();
+        long position = logRecords * RECORD_SIZE;
+        while (buffer.hasRemaining()) {
+            position += log.write(buffer, position);
+        }
+        log.force(false); // One fsync per batch
+        logRecords += batch.size();
+
+        List<Entry> updated = new ArrayList<>(top);
+        for (Entry entry : batch) {
+            insert(updated, entry);
+        }
+        writeIndex(updated);
+        top = Collections.unmodifiableList(updated);
+    }
+
+    // Binary search for the slot after every entry with an equal or higher score
+    private void insert(List<Entry> entries, Entry entry) {
+        int low = 0, high = entries.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entries.get(middle).score >= entry.score) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        if (low < capacity) {
+            entries.add(low, entry);
+            if (entries.size() > capacity) {
+                entries.remove(capacity);
+            }
+        }
+    }
+
+    private ByteBuffer encode(Entry entry) {
+        record.clear();
+        record.putLong(entry.timestamp).putLong(entry.seed).putLong(entry.ticks).putInt(entry.score);
+        crc.reset();
+        crc.update(record.array(), 0, RECORD_SIZE - 4);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    private void recover() throws IOException {
+        long size = log.size();
+        List<Entry> entries = readIndex();
+        long from = entries != null ? index.getLong(16) : 0;
+        if (entries == null || from * RECORD_SIZE > size) {
+            entries = new ArrayList<>();
+            from = 0;
+        }
+
+        // Fold in records the index doesn't cover yet, stopping at the first torn one
+        long records = from;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while ((records + 1) * RECORD_SIZE <= size) {
+            buffer.clear();
+            long position = records * RECORD_SIZE;
+            while (buffer.hasRemaining()) {
+                position += log.read(buffer, position);
+            }
+            crc.reset();
+            crc.update(buffer.array(), 0, RECORD_SIZE - 4);
+            if ((int) crc.getValue() != buffer.getInt(RECORD_SIZE - 4)) break;
+            insert(entries, new Entry(buffer.getInt(24), buffer.getLong(8), buffer.getLong(16), buffer.getLong(0)));
+            records++;
+        }
+        if (records * RECORD_SIZE < size) {
+            log.truncate(records * RECORD_SIZE);
+            log.force(true);
+        }
+        logRecords = records;
+        writeIndex(entries);
+        top = Collections.unmodifiableList(entries);
+    }
+
+    private List<Entry> readIndex() {
+        if (index.getInt(0) != INDEX_MAGIC || index.getInt(4) != INDEX_VERSION || index.getInt(8) != capacity) {
+            return null;
+        }
+        int count = index.getInt(12);
+        if (count < 0 || count > capacity || index.getInt(24) != entriesCrc(count)) {
+            return null;
+        }
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int offset = INDEX_HEADER_SIZE + i * ENTRY_SIZE;
+            entries.add(new Entry(index.getInt(offset), index.getLong(offset + 4), index.getLong(offset + 12), index.getLong(offset + 20)));
+        }
+        return entries;
+    }
+
+    private void writeIndex(List<Entry> entries) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            int offset = INDEX_HEADER_SIZE + i * ENTRY_SIZE;
+            index.putInt(offset, entry.score).putLong(offset + 4, entry.seed)
+                .putLong(offset + 12, entry.ticks).putLong(offset + 20, entry.timestamp);
+        }
+        index.putInt(0, INDEX_MAGIC).putInt(4, INDEX_VERSION).putInt(8, capacity).putInt(12, entries.size());
+        index.putLong(16, logRecords);
+        index.putInt(24, entriesCrc(entries.size()));
+    }
+
+    private int entriesCrc(int count) {
+        CRC32 entriesCrc = new CRC32();
+        entriesCrc.update(index.slice(INDEX_HEADER_SIZE, count * ENTRY_SIZE));
+        return (int) entriesCrc.getValue();
+    }
+}
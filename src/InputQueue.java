@@ -0,0 +1,59 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// Single-producer single-consumer ring of timestamped input events. The EDT
+// offers, the game loop thread polls at the start of each tick; neither side
+// locks or allocates. Each side caches the other's counter and only re-reads
+// it when the ring looks full or empty.
+public final class InputQueue {
+    public static final int NONE = 0;
+    public static final int PRESS = 1; // Jump while running, restart after game over
+    public static final int REWIND = 2;
+
+    private final int mask;
+    private final int[] kinds;
+    private final long[] timestamps;
+    private final AtomicLong head = new AtomicLong(); // Next slot to poll, written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // Next slot to fill, written by the producer
+    private long producerHeadCache;
+    private long consumerTailCache;
+    private long polledTimestamp;
+
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        mask = size - 1;
+        kinds = new int[size];
+        timestamps = new long[size];
+    }
+
+    // Producer side; drops the event and returns false when the ring is full
+    public boolean offer(int kind, long nanoTime) {
+        long t = tail.get();
+        if (t - producerHeadCache > mask) {
+            producerHeadCache = head.get();
+            if (t - producerHeadCache > mask) return false;
+        }
+        int slot = (int) t & mask;
+        kinds[slot] = kind;
+        timestamps[slot] = nanoTime;
+        tail.lazySet(t + 1); // Publishes the slot contents
+        return true;
+    }
+
+    // Consumer side; returns NONE when empty, otherwise the kind, with its timestamp in getPolledTimestamp()
+    public int poll() {
+        long h = head.get();
+        if (h >= consumerTailCache) {
+            consumerTailCache = tail.get();
+            if (h >= consumerTailCache) return NONE;
+        }
+        int slot = (int) h & mask;
+        int kind = kinds[slot];
+        polledTimestamp = timestamps[slot];
+        head.lazySet(h + 1); // Hands the slot back to the producer
+        return kind;
+    }
+
+    public long getPolledTimestamp() {
+        return polledTimestamp;
+    }
+}
@@ -0,0 +1,62 @@
+// Log-linear histogram of non-negative long values in the style of
+// HdrHistogram: exact below 16, then 16 linear sub-buckets per power of two,
+// so every recorded value is kept to within 1/16 (about 6%). Fixed size,
+// recording never allocates. Meant for a single writer; readers on other
+// threads see slightly stale but usable numbers.
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[index(value)]++;
+        count++;
+        total += value;
+        if (value > max) max = value;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    // Largest value that lands in the bucket
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    // Smallest bucketed value that at least the given percentage of recordings are at or below
+    public long getPercentile(double percentile) {
+        if (count == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    public long getCount() { return count; }
+    public long getMax() { return max; }
+    public double getMean() { return count == 0 ? 0 : total / (double) count; }
+}
@@ -0,0 +1,72 @@
+import java.awt.*;
+import java.util.List;
+
+// Top scores under the game over text, with the run that just ended
+// highlighted. Lines are rebuilt only when the store publishes a new snapshot.
+public class LeaderboardOverlay {
+    private static final int ROWS = 5;
+    private static final Font FONT = new Font("Monospaced", Font.BOLD, 16);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 150);
+    private static final Color HIGHLIGHT = new Color(0, 255, 255);
+    private static final int LINE_HEIGHT = 20;
+
+    static final int WIDTH = 320;
+    static final int HEIGHT = (ROWS + 1) * LINE_HEIGHT + 10;
+    static final int X = (GameWorld.WIDTH - WIDTH) / 2;
+    static final int Y = GameWorld.HEIGHT / 2 + 20;
+
+    private final HighScoreStore store;
+    private final String[] lines = new String[ROWS];
+    private volatile long lastSeed;
+    private volatile long lastTicks;
+    // Painting thread only
+    private List<HighScoreStore.Entry> shown;
+    private long shownSeed;
+    private long shownTicks;
+    private int rows;
+    private int highlighted = -1;
+
+    public LeaderboardOverlay(HighScoreStore store) {
+        this.store = store;
+    }
+
+    // The run to highlight once it shows up in the store, set from the loop thread
+    void setLastRun(long seed, long ticks) {
+        lastTicks = ticks;
+        lastSeed = seed;
+    }
+
+    public void render(Graphics2D g2d) {
+        List<HighScoreStore.Entry> top = store.getTop();
+        long seed = lastSeed, ticks = lastTicks;
+        if (top != shown || seed != shownSeed || ticks != shownTicks) {
+            refresh(top, seed, ticks);
+            shown = top;
+            shownSeed = seed;
+            shownTicks = ticks;
+        }
+
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(BACKGROUND);
+        g2d.fillRect(X, Y, WIDTH, HEIGHT);
+        g2d.setFont(FONT);
+        g2d.setColor(Color.WHITE);
+        g2d.drawString("HIGH SCORES", X + 10, Y + LINE_HEIGHT);
+        for (int i = 0; i < rows; i++) {
+            g2d.setColor(i == highlighted ? HIGHLIGHT : Color.WHITE);
+            g2d.drawString(lines[i], X + 10, Y + (i + 2) * LINE_HEIGHT);
+        }
+    }
+
+    private void refresh(List<HighScoreStore.Entry> top, long seed, long ticks) {
+        rows = Math.min(ROWS, top.size());
+        highlighted = -1;
+        for (int i = 0; i < rows; i++) {
+            HighScoreStore.Entry entry = top.get(i);
+            lines[i] = String.format("%d. %8d  %6.1fs", i + 1, entry.getScore(), entry.getTicks() / (double) GameLoop.TICKS_PER_SECOND);
+            if (highlighted < 0 && entry.getSeed() == seed && entry.getTicks() == ticks) {
+                highlighted = i;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+// Lays out the level in chunks of CHUNK_TICKS ticks, each a pure function of
+// (seed, chunk index): obstacle pairs, enemy spawns and power-ups sorted by
+// the tick they enter at the right edge. Since everything scrolls at the same
+// speed, spacing is planned in ticks rather than by scanning what's on screen.
+// Difficulty ramps over the first RAMP_CHUNKS chunks: obstacles come closer
+// together and enemies more often.
+public final class LevelGenerator {
+    public static final int CHUNK_TICKS = 600; // 10 seconds
+    static final int OBSTACLE = 0;
+    static final int ENEMY = 1;
+    static final int POWER_UP = 2;
+
+    private static final int RAMP_CHUNKS = 12;
+    private static final int EDGE_TICKS = 50; // Keeps pairs at least 2 * EDGE_TICKS apart across chunk edges
+    // Obstacle spacing in ticks, at the start and at full difficulty. 100 ticks is 300 pixels
+    private static final int OBSTACLE_SPACING_MIN = 120, OBSTACLE_SPACING_MAX = 200;
+    private static final int HARD_OBSTACLE_SPACING_MIN = 100, HARD_OBSTACLE_SPACING_MAX = 140;
+    private static final int ENEMY_SPACING_MIN = 50, ENEMY_SPACING_MAX = 150;
+    private static final int HARD_ENEMY_SPACING_MIN = 20, HARD_ENEMY_SPACING_MAX = 70;
+    private static final int POWER_UP_PERCENT = 40; // Chance for each stretch between two pairs
+    // A power-up entering this long after a pair and before the next never overlaps either
+    private static final int CLEAR_AFTER_OBSTACLE = 28, CLEAR_BEFORE_OBSTACLE = 8;
+    private static final int ENEMY_TYPES = Enemy.EnemyType.values().length;
+    private static final int MAX_EVENTS = 64;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    // One generated chunk; event offsets are ticks into the chunk, ascending
+    static final class Chunk {
+        final int[] offset = new int[MAX_EVENTS];
+        final byte[] kind = new byte[MAX_EVENTS];
+        final int[] y = new int[MAX_EVENTS];
+        final byte[] variant = new byte[MAX_EVENTS];
+        int count;
+        volatile long key = -1; // Published last by whoever filled a ring slot, see LevelStream
+    }
+
+    // Per generating thread, so a chunk allocates nothing
+    private static final class Scratch {
+        final GameRandom random = new GameRandom(0);
+        final int[] pairs = new int[CHUNK_TICKS / HARD_OBSTACLE_SPACING_MIN + 1];
+        final Chunk events = new Chunk();
+    }
+
+    private LevelGenerator() {}
+
+    static void generate(long seed, long chunk, Chunk out) {
+        Scratch scratch = SCRATCH.get();
+        GameRandom random = scratch.random;
+        // Seeded with the mixed chunk key, so neighbouring chunks are unrelated
+        random.setState(seed + chunk * 0x9E3779B97F4A7C15L);
+        random.setState(random.nextLong());
+        double difficulty = Math.min(1.0, chunk / (double) RAMP_CHUNKS);
+        out.count = 0;
+
+        // Obstacle pairs, then power-ups in the clear stretches between them
+        int[] pairs = scratch.pairs;
+        int pairCount = 0;
+        int minSpacing = lerp(OBSTACLE_SPACING_MIN, HARD_OBSTACLE_SPACING_MIN, difficulty);
+        int maxSpacing = lerp(OBSTACLE_SPACING_MAX, HARD_OBSTACLE_SPACING_MAX, difficulty);
+        for (int t = EDGE_TICKS + random.nextInt(minSpacing / 2); t <= CHUNK_TICKS - EDGE_TICKS;
+                t += minSpacing + random.nextInt(maxSpacing - minSpacing + 1)) {
+            pairs[pairCount++] = t;
+        }
+
+        // Events are written per kind, then merged by offset below
+        Chunk events = scratch.events;
+        events.count = 0;
+        for (int i = 0; i < pairCount; i++) {
+            add(events, pairs[i], OBSTACLE, random.nextInt(GameWorld.HEIGHT - GameWorld.GAP_HEIGHT), 0);
+            if (i + 1 < pairCount && random.nextInt(100) < POWER_UP_PERCENT) {
+                int from = pairs[i] + CLEAR_AFTER_OBSTACLE;
+                int to = pairs[i + 1] - CLEAR_BEFORE_OBSTACLE;
+                add(events, from + random.nextInt(to - from), POWER_UP,
+                    random.nextInt(GameWorld.HEIGHT - PowerUp.SIZE), random.nextInt(2));
+            }
+        }
+        int fixed = events.count;
+
+        minSpacing = lerp(ENEMY_SPACING_MIN, HARD_ENEMY_SPACING_MIN, difficulty);
+        maxSpacing = lerp(ENEMY_SPACING_MAX, HARD_ENEMY_SPACING_MAX, difficulty);
+        for (int t = random.nextInt(maxSpacing); t < CHUNK_TICKS; t += minSpacing + random.nextInt(maxSpacing - minSpacing + 1)) {
+            add(events, t, ENEMY, random.nextInt(GameWorld.HEIGHT - Enemy.SIZE), random.nextInt(ENEMY_TYPES));
+        }
+
+        // Merge the two ascending runs; on a tie obstacles and power-ups go first
+        int a = 0, b = fixed;
+        while (a < fixed || b < events.count) {
+            int from = b >= events.count || (a < fixed && events.offset[a] <= events.offset[b]) ? a++ : b++;
+            add(out, events.offset[from], events.kind[from], events.y[from], events.variant[from]);
+        }
+    }
+
+    private static void add(Chunk chunk, int offset, int kind, int y, int variant) {
+        int i = chunk.count++;
+        chunk.offset[i] = offset;
+        chunk.kind[i] = (byte) kind;
+        chunk.y[i] = y;
+        chunk.variant[i] = (byte) variant;
+    }
+
+    private static int lerp(int easy, int hard, double difficulty) {
+        return (int) Math.round(easy + (hard - easy) * difficulty);
+    }
+}
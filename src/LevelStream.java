@@ -0,0 +1,125 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Feeds a world the LevelGenerator events due at each tick. With prefetch on,
+// a shared background thread keeps the chunks ahead of the current one
+// generated into a ring of slots; the tick only steps a cursor through the
+// current chunk and swaps slots at chunk edges. A slot is used only if it was
+// published for this run and chunk, otherwise the chunk is generated inline
+// into a private spare, which gives the same events since chunks depend on
+// nothing but the seed.
+//
+// Only the background thread writes ring slots, and only for chunks in
+// [current, current + RING_SIZE), whose slots the tick isn't reading. Runs
+// are told apart by an epoch bumped on every reset, so a prefetch still
+// running for the previous run can't publish into this one.
+public class LevelStream {
+    private static final int RING_SIZE = 4;
+    private static final ExecutorService PREFETCHER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "level-generator");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final LevelGenerator.Chunk[] ring = new LevelGenerator.Chunk[RING_SIZE];
+    private final LevelGenerator.Chunk spare = new LevelGenerator.Chunk();
+    private final Runnable prefetchTask = this::prefetch;
+    private final boolean prefetching;
+    private volatile long seed;
+    private volatile int epoch;
+    private volatile long current; // Chunk the tick is in, read by the prefetcher
+    private LevelGenerator.Chunk chunk;
+    private int cursor;
+
+    // Polled event, valid until the next poll
+    private int polledKind;
+    private int polledY;
+    private int polledVariant;
+
+    public LevelStream(boolean prefetching) {
+        this.prefetching = prefetching;
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = new LevelGenerator.Chunk();
+        }
+    }
+
+    public void reset(long seed) {
+        this.seed = seed;
+        epoch++;
+        enter(0);
+    }
+
+    // Continues a run from any tick, for restored snapshots. Going back starts a
+    // new epoch: a prefetch still filling slots ahead of the old position may
+    // be writing the slot of the chunk we go back to
+    public void seek(long seed, long tick) {
+        long index = tick / LevelGenerator.CHUNK_TICKS;
+        if (seed != this.seed || index < current) {
+            this.seed = seed;
+            epoch++;
+            enter(index);
+        } else if (index > current) {
+            enter(index);
+        }
+        int offset = (int) (tick - index * LevelGenerator.CHUNK_TICKS);
+        cursor = 0;
+        while (cursor < chunk.count && chunk.offset[cursor] < offset) {
+            cursor++;
+        }
+    }
+
+    // Loads the next event due at this tick, if any. Ticks must be polled in order
+    public boolean poll(long tick) {
+        long index = tick / LevelGenerator.CHUNK_TICKS;
+        if (index != current) {
+            enter(index);
+        }
+        if (cursor == chunk.count || chunk.offset[cursor] != tick - index * LevelGenerator.CHUNK_TICKS) {
+            return false;
+        }
+        polledKind = chunk.kind[cursor];
+        polledY = chunk.y[cursor];
+        polledVariant = chunk.variant[cursor];
+        cursor++;
+        return true;
+    }
+
+    public int getPolledKind() { return polledKind; }
+    public int getPolledY() { return polledY; }
+    public int getPolledVariant() { return polledVariant; }
+
+    private void enter(long index) {
+        current = index;
+        cursor = 0;
+        LevelGenerator.Chunk slot = ring[(int) (index % RING_SIZE)];
+        if (prefetching && slot.key == key(epoch, index)) {
+            chunk = slot;
+        } else {
+            LevelGenerator.generate(seed, index, spare);
+            chunk = spare;
+        }
+        if (prefetching) {
+            PREFETCHER.execute(prefetchTask);
+        }
+    }
+
+    private void prefetch() {
+        int epoch = this.epoch;
+        long seed = this.seed;
+        long from = current;
+        for (long index = from + 1; index < from + RING_SIZE; index++) {
+            LevelGenerator.Chunk slot = ring[(int) (index % RING_SIZE)];
+            long key = key(epoch, index);
+            if (slot.key == key) continue;
+            // The tick may have moved on since, which makes the slot one it could be reading
+            if (epoch != this.epoch || index <= current) return;
+            LevelGenerator.generate(seed, index, slot);
+            slot.key = key;
+        }
+    }
+
+    private static long key(int epoch, long index) {
+        return (long) epoch << 40 | index;
+    }
+}
@@ -2,32 +2,69 @@ import javax.swing.*;
 import java.awt.GraphicsEnvironment;
 
 public class Main {
+    private static final int AUTOPILOT_ROLLOUTS = 32;
+    
     public static void main(String[] args) {
-        if (GraphicsEnvironment.isHeadless()) {
+        if (args.length >= 2 && args[0].equals("--replay")) {
+            verifyReplay(args[1]);
+        } else if (args.length >= 3 && args[0].equals("--render-replay")) {
+            renderReplay(args);
+        } else if (args.length >= 2 && args[0].equals("--batch")) {
+            // --batch <runs> [maxTicks] [--autopilot]: the autopilot searches each run single-threaded
+            int runs = Integer.parseInt(args[1]);
+            long maxTicks = args.length >= 3 && !args[2].startsWith("--") ? Long.parseLong(args[2]) : 100_000;
+            boolean autopilot = java.util.Arrays.asList(args).contains("--autopilot");
+            BatchRunner runner = new BatchRunner(Runtime.getRuntime().availableProcessors(), maxTicks,
+                autopilot ? seed -> new MonteCarloPilot(seed, AUTOPILOT_ROLLOUTS, 0, 1) : GapPilot::new);
+            System.out.println(runner.run(0, runs));
+            runner.shutdown();
+        } else if (args.length >= 2 && args[0].equals("--serve-replays")) {
+            serveReplays(args);
+        } else if (args.length >= 3 && args[0].equals("--serve-shm")) {
+            serveSharedMemory(args);
+        } else if (GraphicsEnvironment.isHeadless()) {
             System.out.println("Running in headless mode for testing");
-            GamePanel gamePanel = new GamePanel();
-            // Simulate more realistic player actions for testing
-            for (int i = 0; i < 200; i++) {
-                try {
-                    Thread.sleep(50); // Faster game loop timing
-                    // Simulate more natural jumping pattern
-                    if (i % 15 == 0 || i % 16 == 0) { // Double-tap for controlled ascent
-                        System.out.println("\nPlayer jump!");
-                        gamePanel.mousePressed(null);
-                    }
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+            // Soak run: the autopilot plays a minute of game time as fast as its search allows
+            GameWorld world = new GameWorld();
+            MonteCarloPilot pilot = new MonteCarloPilot(world.getSeed(), AUTOPILOT_ROLLOUTS, 0,
+                Runtime.getRuntime().availableProcessors());
+            while (world.getState() == GameWorld.GameState.RUNNING && world.getTick() < 60 * GameLoop.TICKS_PER_SECOND) {
+                world.step(pilot.shouldJump(world));
             }
+            pilot.shutdown();
+            System.out.println(pilot);
+            System.out.println("Final score: " + world.getScore() + " (" + world.getState() + ", seed " + world.getSeed() + ")");
         } else {
+            // --render=swing (default), active (BufferStrategy) or dirty (active, redrawing changed tiles only)
+            String render = "swing";
+            for (String arg : args) {
+                if (arg.startsWith("--render=")) render = arg.substring("--render=".length());
+            }
+            String mode = render;
             SwingUtilities.invokeLater(() -> {
                 JFrame frame = new JFrame("Neon Runner");                frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
                 frame.setResizable(false);
                 
-                GamePanel gamePanel = new GamePanel();
-                frame.add(gamePanel);
+                GameView view;
+                java.awt.Component component;
+                if (mode.equals("active") || mode.equals("dirty")) {
+                    GameCanvas canvas = new GameCanvas(mode.equals("dirty"));
+                    view = canvas;
+                    component = canvas;
+                } else {
+                    GamePanel gamePanel = new GamePanel();
+                    view = gamePanel;
+                    component = gamePanel;
+                }
+                frame.add(component);
                 frame.addWindowListener(new java.awt.event.WindowAdapter() {
                     public void windowClosing(java.awt.event.WindowEvent e) {
+                        System.out.println(view.getGameLoop().getTickStats());
+                        System.out.println(view.getGameLoop().getFrameStats());
+                        System.out.println(view.getSession().getInputLatency());
+                        System.out.println(view.getSession().getProfiler());
+                        SoundManager.shutdown();
+                        view.getSession().close();
                         System.exit(0);
                     }
                 });
@@ -35,7 +72,85 @@ public class Main {
                 frame.pack();
                 frame.setLocationRelativeTo(null);
                 frame.setVisible(true);
+                component.requestFocusInWindow(); // Space bar input
             });
         }
     }
-}
\ No newline at end of file
+    
+    // --serve-replays <port> [workers]: verification server for uploaded replays, runs until killed
+    private static void serveReplays(String[] args) {
+        int port = Integer.parseInt(args[1]);
+        int workers = args.length >= 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        // Replies are small and would otherwise sit out the client's delayed ACK, about 40 ms each.
+        // The JDK server reads this once for the whole JVM, so it has to be set before the first one starts
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        try {
+            // Queue about a second of uploads per worker; replays are capped at an hour of play
+            ReplayServer server = new ReplayServer(port, workers, 16 * workers, 3600L * GameLoop.TICKS_PER_SECOND);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            System.out.println("Verifying replays on http://localhost:" + server.getPort() + "/verify, metrics on /metrics");
+        } catch (java.io.IOException e) {
+            System.err.println("Could not start replay server: " + e.getMessage());
+        }
+    }
+    
+    // --serve-shm <file> <worlds> [maxTicks]: hands the worlds to a trainer process, see SharedMemoryEnv
+    private static void serveSharedMemory(String[] args) {
+        java.nio.file.Path file = java.nio.file.Paths.get(args[1]);
+        int worlds = Integer.parseInt(args[2]);
+        long maxTicks = args.length >= 4 ? Long.parseLong(args[3]) : 100_000;
+        try (SharedMemoryEnv env = new SharedMemoryEnv(file, worlds, maxTicks, Runtime.getRuntime().availableProcessors())) {
+            System.out.println("Serving " + worlds + " worlds through " + file);
+            long start = System.nanoTime();
+            long steps = env.serve();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Trainer closed after %d steps (%.0f world steps/s)%n", steps, steps * (double) worlds / seconds);
+        } catch (java.io.IOException e) {
+            System.err.println("Shared memory channel failed: " + e.getMessage());
+        }
+    }
+    
+    // --render-replay <replay.nrr> <output> [png|raw]: one frame per tick, as fast as the encoders keep up
+    private static void renderReplay(String[] args) {
+        FrameRecorder.Format format = args.length >= 4 && args[3].equals("raw") ? FrameRecorder.Format.RAW : FrameRecorder.Format.PNG;
+        try (java.io.InputStream in = new java.io.FileInputStream(args[1])) {
+            Replay replay = Replay.read(in);
+            long start = System.nanoTime();
+            FrameRecorder recorder = new FrameRecorder(java.nio.file.Paths.get(args[2]), format,
+                Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+            try (recorder) {
+                GameWorld world = new GameWorld(replay.getSeed());
+                Pilot pilot = replay.toPilot();
+                recorder.record(world);
+                while (world.getTick() < replay.getTicks() && world.getState() == GameWorld.GameState.RUNNING) {
+                    world.step(pilot.shouldJump(world));
+                    recorder.record(world);
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Rendered %d frames to %s in %.2f s (%.0f fps, %.2f s waiting on the encoders)%n",
+                recorder.getFrames(), args[2], seconds, recorder.getFrames() / seconds, recorder.getStallNanos() / 1e9);
+        } catch (java.io.IOException e) {
+            System.err.println("Could not render replay: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void verifyReplay(String file) {
+        try (java.io.InputStream in = new java.io.FileInputStream(file)) {
+            Replay replay = Replay.read(in);
+            long start = System.nanoTime();
+            GameWorld world = replay.simulate();
+            long elapsed = System.nanoTime() - start;
+            boolean verified = world.getTick() == replay.getTicks() && world.getScore() == replay.getScore();
+            System.out.printf("Replay seed=%016x ticks=%d claimed=%d simulated=%d %s (%.2f ms)%n",
+                replay.getSeed(), replay.getTicks(), replay.getScore(), world.getScore(),
+                verified ? "VERIFIED" : "MISMATCH", elapsed / 1e6);
+        } catch (java.io.IOException e) {
+            System.err.println("Could not read replay: " + e.getMessage());
+        }
+    }
+}
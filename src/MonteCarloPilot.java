@@ -0,0 +1,186 @@
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Lookahead autopilot. Every tick it snapshots the world and plays short
+// rollouts on private copies: the rest of the plan it is following, plus
+// random jump sequences starting with either action. The simulation is
+// deterministic, so the best rollout is a plan the real world will follow
+// exactly; the pilot takes its first action and keeps the rest as next
+// tick's incumbent, which means a found escape is never lost to bad luck.
+//
+// Rollouts are spread over a ForkJoinPool. With a time budget the search
+// stops when it runs out (after at least the incumbent and one rollout per
+// action), for real-time play; without one every tick runs all rollouts and
+// the result only depends on the seed, not on timing or parallelism.
+public class MonteCarloPilot implements Pilot {
+    private static final int HORIZON = 120; // Two seconds of lookahead
+    private static final int[] JUMP_PERCENTS = {2, 4, 7}; // Random rollouts hover at different heights
+    private static final int MIN_ROLLOUTS = 3;
+
+    private final long seed;
+    private final int rollouts;
+    private final long budgetNanos;
+    private final ForkJoinPool pool;
+    private final Worker[] workers;
+    private final RecursiveAction all;
+    private final boolean[] incumbent = new boolean[HORIZON];
+    private ByteBuffer snapshot = ByteBuffer.allocate(4096);
+    private long deadline;
+    private long lastTick = -1;
+    private long lastSeed;
+
+    private long decisions;
+    private long rolloutsRun;
+    private long searchNanos;
+
+    // budgetNanos 0 means no time limit; parallelism 1 searches on the calling thread
+    public MonteCarloPilot(long seed, int rollouts, long budgetNanos, int parallelism) {
+        this.seed = seed;
+        this.rollouts = Math.max(MIN_ROLLOUTS, rollouts);
+        this.budgetNanos = budgetNanos;
+        workers = new Worker[Math.max(1, Math.min(parallelism, this.rollouts))];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i);
+        }
+        pool = workers.length > 1 ? new ForkJoinPool(workers.length) : null;
+        all = new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(workers);
+            }
+        };
+    }
+
+    @Override
+    public boolean shouldJump(GameWorld world) {
+        observe(world);
+        return decide();
+    }
+
+    // Takes the snapshot to search from; the only part that reads the world,
+    // so callers sharing it with a renderer can drop their lock for decide()
+    public void observe(GameWorld world) {
+        int size = world.snapshotSize();
+        if (snapshot.capacity() < size) {
+            snapshot = ByteBuffer.allocate(size + size / 2);
+            for (Worker worker : workers) {
+                worker.view = null;
+            }
+        }
+        snapshot.clear();
+        world.save(snapshot);
+        snapshot.flip();
+
+        // A plan only carries over to the next tick of the same run
+        if (world.getTick() != lastTick + 1 || world.getSeed() != lastSeed) {
+            java.util.Arrays.fill(incumbent, false);
+        }
+        lastTick = world.getTick();
+        lastSeed = world.getSeed();
+    }
+
+    public boolean decide() {
+        long start = System.nanoTime();
+        deadline = budgetNanos > 0 ? start + budgetNanos : Long.MAX_VALUE;
+        if (pool == null) {
+            workers[0].compute();
+        } else {
+            for (Worker worker : workers) {
+                worker.reinitialize();
+            }
+            all.reinitialize();
+            pool.invoke(all);
+        }
+
+        Worker best = workers[0];
+        for (Worker worker : workers) {
+            rolloutsRun += worker.count;
+            if (worker.bestValue > best.bestValue
+                    || (worker.bestValue == best.bestValue && worker.bestIndex < best.bestIndex)) {
+                best = worker;
+            }
+        }
+        // Shifted by one tick; the new last step starts out as no jump
+        System.arraycopy(best.bestPlan, 1, incumbent, 0, HORIZON - 1);
+        incumbent[HORIZON - 1] = false;
+        decisions++;
+        searchNanos += System.nanoTime() - start;
+        return best.bestPlan[0];
+    }
+
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("autopilot: %d decisions, %.1f rollouts and %.2f ms each",
+            decisions, decisions == 0 ? 0 : rolloutsRun / (double) decisions,
+            decisions == 0 ? 0 : searchNanos / 1e6 / decisions);
+    }
+
+    // Runs rollouts index, index + workers, ... on its own copy of the world
+    @SuppressWarnings("serial")
+    private class Worker extends RecursiveAction {
+        private final int index;
+        private final GameWorld world = new GameWorld(0);
+        private final GameRandom random = new GameRandom(0);
+        private final boolean[] plan = new boolean[HORIZON];
+        private final boolean[] bestPlan = new boolean[HORIZON];
+        private ByteBuffer view;
+        private long bestValue;
+        private int bestIndex;
+        private int count;
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            if (view == null) {
+                view = snapshot.duplicate();
+            }
+            bestValue = Long.MIN_VALUE;
+            bestIndex = Integer.MAX_VALUE;
+            count = 0;
+            for (int i = index; i < rollouts; i += workers.length) {
+                if (i >= MIN_ROLLOUTS && System.nanoTime() > deadline) break;
+                long value = rollout(i);
+                count++;
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestIndex = i;
+                    System.arraycopy(plan, 0, bestPlan, 0, HORIZON);
+                }
+            }
+        }
+
+        // Rollout 0 replays the incumbent, odd ones start with a jump, even ones without
+        private long rollout(int i) {
+            view.clear().limit(snapshot.limit());
+            world.restore(view);
+            long startTick = world.getTick();
+            if (i == 0) {
+                System.arraycopy(incumbent, 0, plan, 0, HORIZON);
+            } else {
+                random.setState(seed + startTick * 0x9E3779B97F4A7C15L + i * 0xC2B2AE3D27D4EB4FL);
+                int percent = JUMP_PERCENTS[(i >> 1) % JUMP_PERCENTS.length];
+                plan[0] = (i & 1) == 1;
+                for (int t = 1; t < HORIZON; t++) {
+                    plan[t] = random.nextInt(100) < percent;
+                }
+            }
+
+            for (int t = 0; t < HORIZON && world.getState() == GameWorld.GameState.RUNNING; t++) {
+                world.step(plan[t]);
+            }
+            // Survival first, then health left to survive beyond the horizon
+            long survived = world.getTick() - startTick;
+            return survived * (Player.MAX_HEALTH + 1) + world.getPlayer().getHealth();
+        }
+    }
+}
@@ -1,38 +1,50 @@
-public class Obstacle {
-    private double x, y;
-    private final int width, height;
-    
-    public Obstacle(double x, double y, int width, int height) {
-        this.x = x;
-        this.y = y;
-        this.width = width;
-        this.height = height;
+public class Obstacle extends Entity {
+    private final Bounds bounds = new Bounds();
+    
+    public Obstacle init(double x, double y, int width, int height) {
+        EntityStore<?> s = store;
+        s.x[slot] = x;
+        s.previousX[slot] = x;
+        s.y[slot] = y;
+        s.previousY[slot] = y;
+        s.width[slot] = width;
+        s.height[slot] = height;
+        return this;
+    }
+    
+    public void scroll(double speed) {
+        store.previousX[slot] = store.x[slot];
+        store.x[slot] -= speed;
     }
     
-    public void render(java.awt.Graphics2D g2d) {
+    public void render(java.awt.Graphics2D g2d, double alpha) {
         g2d.setColor(java.awt.Color.GRAY);
-        g2d.fillRect((int)x, (int)y, width, height);
+        g2d.fillRect(getRenderX(alpha), (int)store.y[slot], store.width[slot], store.height[slot]);
     }
     
-    public boolean collidesWithRect(java.awt.Rectangle rect) {
-        return rect.intersects(new java.awt.Rectangle(
-            (int)x, 
-            (int)y, 
-            width, 
-            height
-        ));
+    public boolean collidesWithRect(Bounds rect) {
+        return collidesWithRect(rect.x, rect.y, rect.width, rect.height);
+    }
+    
+    public boolean collidesWithRect(int rectX, int rectY, int rectWidth, int rectHeight) {
+        EntityStore<?> s = store;
+        return Bounds.intersects(rectX, rectY, rectWidth, rectHeight, (int)s.x[slot], (int)s.y[slot], s.width[slot], s.height[slot]);
     }
     
     public boolean collidesWith(Player player) {
         return collidesWithRect(player.getBounds());
     }
     
-    public double getX() { return x; }
-    public double getY() { return y; }
-    public int getWidth() { return width; }
-    public int getHeight() { return height; }
+    public Bounds getBounds() {
+        return bounds.set(store.x[slot], store.y[slot], store.width[slot], store.height[slot]);
+    }
+    
+    public double getX() { return store.x[slot]; }
+    public double getY() { return store.y[slot]; }
+    public int getWidth() { return store.width[slot]; }
+    public int getHeight() { return store.height[slot]; }
     
     // For enemy collision handling
-    public void setX(double x) { this.x = x; }
-    public void setY(double y) { this.y = y; }
+    public void setX(double x) { store.x[slot] = x; }
+    public void setY(double y) { store.y[slot] = y; }
 }
@@ -0,0 +1,9 @@
+// Decides the jump input for the next tick of a headless run
+public interface Pilot {
+    boolean shouldJump(GameWorld world);
+
+    // Scripted double-tap pattern from the original headless smoke test
+    static Pilot scripted() {
+        return world -> world.getTick() % 15 == 0 || world.getTick() % 16 == 0;
+    }
+}
@@ -1,21 +1,29 @@
 public class Player {
-    private static final int SIZE = 30;
+    static final int SIZE = 30;
     private static final double JUMP_VELOCITY = -8.0;
     private static final double GRAVITY = 0.4;
-    private static final double MAX_FALL_SPEED = 10.0;
-    private static final int MAX_HEALTH = 3;
+    static final double MAX_FALL_SPEED = 10.0;
+    static final int MAX_HEALTH = 3;
     private static final int INVULNERABILITY_FRAMES = 120; // 2 seconds at 60 FPS
+    static final int SNAPSHOT_BYTES = 4 * Double.BYTES + 3 * Integer.BYTES + 1;
     
     private double x, y;
+    private double previousY;
     private double velocityY;
     private int health;
     private int invulnerabilityTimer;
     private boolean hasRocketBoost;
     private int rocketBoostTimer;
+    private final Bounds bounds = new Bounds();
     
     public Player(double x, double y) {
+        reset(x, y);
+    }
+    
+    public void reset(double x, double y) {
         this.x = x;
         this.y = y;
+        this.previousY = y;
         this.velocityY = 0;
         this.health = MAX_HEALTH;
         this.invulnerabilityTimer = 0;
@@ -24,6 +32,8 @@ public class Player {
     }
     
     public void update() {
+        previousY = y;
+        
         // Update position
         velocityY = Math.min(velocityY + GRAVITY, MAX_FALL_SPEED);
         y += velocityY;
@@ -32,8 +42,8 @@ public class Player {
         if (y <= 0) {
             y = 0;
             velocityY = 0;
-        } else if (y >= GamePanel.getPanelHeight() - SIZE) {
-            y = GamePanel.getPanelHeight() - SIZE;
+        } else if (y >= GameWorld.HEIGHT - SIZE) {
+            y = GameWorld.HEIGHT - SIZE;
             velocityY = 0;
         }
         
@@ -52,6 +62,22 @@ public class Player {
         }
     }
     
+    void save(java.nio.ByteBuffer buffer) {
+        buffer.putDouble(x).putDouble(y).putDouble(previousY).putDouble(velocityY)
+            .putInt(health).putInt(invulnerabilityTimer).putInt(rocketBoostTimer).put((byte) (hasRocketBoost ? 1 : 0));
+    }
+    
+    void restore(java.nio.ByteBuffer buffer) {
+        x = buffer.getDouble();
+        y = buffer.getDouble();
+        previousY = buffer.getDouble();
+        velocityY = buffer.getDouble();
+        health = buffer.getInt();
+        invulnerabilityTimer = buffer.getInt();
+        rocketBoostTimer = buffer.getInt();
+        hasRocketBoost = buffer.get() != 0;
+    }
+    
     public void jump() {
         velocityY = JUMP_VELOCITY;
     }
@@ -60,7 +86,6 @@ public class Player {
         if (!isInvulnerable()) {
             health--;
             invulnerabilityTimer = INVULNERABILITY_FRAMES;
-            SoundManager.playSound("hit");
         }
     }
     
@@ -77,25 +102,39 @@ public class Player {
         return invulnerabilityTimer > 0;
     }
     
-    public void render(java.awt.Graphics2D g2d) {
-        // Flash when invulnerable
-        if (!isInvulnerable() || invulnerabilityTimer % 10 < 5) {
-            if (hasRocketBoost) {
-                g2d.setColor(java.awt.Color.ORANGE);
-            } else {
-                g2d.setColor(java.awt.Color.BLUE);
-            }
-            g2d.fillRect((int)x, (int)y, SIZE, SIZE);
+    public void render(java.awt.Graphics2D g2d, double alpha) {
+        if (isVisible()) {
+            paint(g2d, (int)x, getRenderY(alpha), hasRocketBoost);
         }
     }
     
-    public java.awt.Rectangle getBounds() {
-        return new java.awt.Rectangle((int)x, (int)y, SIZE, SIZE);
+    static void paint(java.awt.Graphics2D g2d, int x, int y, boolean rocketBoost) {
+        if (rocketBoost) {
+            g2d.setColor(java.awt.Color.ORANGE);
+        } else {
+            g2d.setColor(java.awt.Color.BLUE);
+        }
+        g2d.fillRect(x, y, SIZE, SIZE);
+    }
+    
+    // Flash when invulnerable
+    public boolean isVisible() {
+        return !isInvulnerable() || invulnerabilityTimer % 10 < 5;
+    }
+    
+    public int getRenderY(double alpha) {
+        return (int)(previousY + (y - previousY) * alpha);
+    }
+    
+    // Reused between calls, copy the fields if they must outlive the next call
+    public Bounds getBounds() {
+        return bounds.set(x, y, SIZE, SIZE);
     }
     
     public double getX() { return x; }
     public double getY() { return y; }
     public double getVelocityY() { return velocityY; }
+    public int getSize() { return SIZE; }
     public int getHealth() { return health; }
     public boolean hasRocketBoost() { return hasRocketBoost; }
 }
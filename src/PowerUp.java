@@ -1,73 +1,104 @@
-public class PowerUp {
-    private double x, y;
-    private PowerUpType type;
-    private static final int SIZE = 20;
+public class PowerUp extends Entity {
+    static final int SIZE = 20;
     private static final double SPEED = 3.0;
-    private double glowEffect = 0;
-    private boolean increasing = true;
+    private static final PowerUpType[] TYPES = PowerUpType.values();
+    private static final int GLOW_INCREASING = 1; // Store flag bit, glow level is kept in the phase column
+    static final int GLOW_PHASES = 21;
+    static final int GLOW_MARGIN = 5;
+    private static final java.awt.Color DATA_PACK_COLOR = new java.awt.Color(0, 255, 128);
+    private final Bounds bounds = new Bounds();
 
     public enum PowerUpType {
         ROCKET_BOOST,
         DATA_PACK
     }
 
-    public PowerUp(int startX, int startY, PowerUpType type) {
-        this.x = startX;
-        this.y = startY;
-        this.type = type;
+    public PowerUp init(int startX, int startY, PowerUpType type) {
+        EntityStore<?> s = store;
+        s.x[slot] = startX;
+        s.previousX[slot] = startX;
+        s.y[slot] = startY;
+        s.previousY[slot] = startY;
+        s.velocityX[slot] = -SPEED;
+        s.width[slot] = SIZE;
+        s.height[slot] = SIZE;
+        s.type[slot] = type.ordinal();
+        s.phase[slot] = 0;
+        s.flags[slot] = GLOW_INCREASING;
+        return this;
     }
 
     public void update() {
-        x -= SPEED;
+        EntityStore<?> s = store;
+        s.previousX[slot] = s.x[slot];
+        s.x[slot] -= SPEED;
         
         // Update glow effect
-        if (increasing) {
+        double glowEffect = s.phase[slot];
+        if ((s.flags[slot] & GLOW_INCREASING) != 0) {
             glowEffect += 0.05;
             if (glowEffect >= 1.0) {
-                increasing = false;
+                s.flags[slot] &= ~GLOW_INCREASING;
             }
         } else {
             glowEffect -= 0.05;
             if (glowEffect <= 0.0) {
-                increasing = true;
+                s.flags[slot] |= GLOW_INCREASING;
             }
         }
+        s.phase[slot] = glowEffect;
     }
 
-    public void render(java.awt.Graphics2D g2d) {
+    public void render(java.awt.Graphics2D g2d, double alpha) {
+        paint(g2d, getType(), getRenderX(alpha), (int)store.y[slot], store.phase[slot]);
+    }
+
+    static void paint(java.awt.Graphics2D g2d, PowerUpType type, int drawX, int drawY, double glowEffect) {
         // Draw the power-up with a glowing effect
         if (type == PowerUpType.ROCKET_BOOST) {
             // Rocket boost (cyan)
             g2d.setColor(java.awt.Color.CYAN);
         } else {
             // Data pack (green)
-            g2d.setColor(new java.awt.Color(0, 255, 128));
+            g2d.setColor(DATA_PACK_COLOR);
         }
 
         // Draw the main shape
-        g2d.fillRect((int)x, (int)y, SIZE, SIZE);
+        g2d.fillRect(drawX, drawY, SIZE, SIZE);
 
         // Draw the glow effect
-        float alpha = Math.max(0.0f, Math.min(1.0f, (float)(0.3 * glowEffect)));
+        float glowAlpha = Math.max(0.0f, Math.min(1.0f, (float)(0.3 * glowEffect)));
         java.awt.AlphaComposite alphaComposite = java.awt.AlphaComposite.getInstance(
             java.awt.AlphaComposite.SRC_OVER, 
-            alpha
+            glowAlpha
         );
         g2d.setComposite(alphaComposite);
-        g2d.fillRect((int)x - 5, (int)y - 5, SIZE + 10, SIZE + 10);
+        g2d.fillRect(drawX - GLOW_MARGIN, drawY - GLOW_MARGIN, SIZE + 2 * GLOW_MARGIN, SIZE + 2 * GLOW_MARGIN);
         g2d.setComposite(java.awt.AlphaComposite.SrcOver);
     }
 
+    // Glow level quantized to the 0.05 steps update() moves it in
+    public int getGlowPhase() {
+        return Math.max(0, Math.min(GLOW_PHASES - 1, (int)Math.round(store.phase[slot] * (GLOW_PHASES - 1))));
+    }
+
     public boolean isOffScreen() {
-        return x + SIZE < 0;
+        return store.x[slot] + SIZE < 0;
     }
 
     public boolean collidesWith(Player player) {
-        java.awt.Rectangle powerUpBounds = new java.awt.Rectangle((int)x, (int)y, SIZE, SIZE);
-        return powerUpBounds.intersects(player.getBounds());
+        return getBounds().intersects(player.getBounds());
     }
 
+    public Bounds getBounds() {
+        return bounds.set(store.x[slot], store.y[slot], SIZE, SIZE);
+    }
+
+    public double getX() { return store.x[slot]; }
+    public double getY() { return store.y[slot]; }
+    public int getSize() { return SIZE; }
+
     public PowerUpType getType() {
-        return type;
+        return TYPES[store.type[slot]];
     }
 }
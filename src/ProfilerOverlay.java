@@ -0,0 +1,59 @@
+import java.awt.*;
+
+// Live TickProfiler readout in the top right corner, toggled with F3. The
+// text is rebuilt twice a second so drawing it doesn't allocate every frame.
+public class ProfilerOverlay {
+    private static final TickProfiler.Phase[] PHASES = TickProfiler.Phase.values();
+    private static final long REFRESH_NANOS = 500_000_000L;
+    private static final Font FONT = new Font("Monospaced", Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final int LINE_HEIGHT = 15;
+    private static final int LINES = PHASES.length + 4;
+
+    static final int WIDTH = 300;
+    static final int HEIGHT = LINES * LINE_HEIGHT + 10;
+    static final int X = GameWorld.WIDTH - WIDTH - 10;
+    static final int Y = 10;
+
+    private final TickProfiler profiler;
+    private final TimingStats inputLatency;
+    private final String[] lines = new String[LINES];
+    private long refreshed = Long.MIN_VALUE;
+
+    public ProfilerOverlay(TickProfiler profiler, TimingStats inputLatency) {
+        this.profiler = profiler;
+        this.inputLatency = inputLatency;
+    }
+
+    public void render(Graphics2D g2d) {
+        long now = System.nanoTime();
+        if (now - refreshed >= REFRESH_NANOS) {
+            refresh();
+            refreshed = now;
+        }
+
+        g2d.setColor(BACKGROUND);
+        g2d.fillRect(X, Y, WIDTH, HEIGHT);
+        g2d.setColor(Color.GREEN);
+        g2d.setFont(FONT);
+        for (int i = 0; i < lines.length; i++) {
+            g2d.drawString(lines[i], X + 8, Y + 5 + (i + 1) * LINE_HEIGHT - 3);
+        }
+    }
+
+    private void refresh() {
+        lines[0] = "phase        p50     p99     max (us)";
+        for (int i = 0; i < PHASES.length; i++) {
+            LatencyHistogram histogram = profiler.getHistogram(PHASES[i]);
+            lines[i + 1] = String.format("%-10s %7.1f %7.1f %7.1f", PHASES[i].name().toLowerCase(),
+                histogram.getPercentile(50) / 1e3, histogram.getPercentile(99) / 1e3, histogram.getMax() / 1e3);
+        }
+        lines[PHASES.length + 1] = String.format("enemies %d  obstacles %d  power-ups %d",
+            profiler.getEnemyCount(), profiler.getObstacleCount(), profiler.getPowerUpCount());
+        lines[PHASES.length + 2] = String.format("alloc %.1f KB/s  gc %.1f/s %.1f ms/s",
+            profiler.getAllocationBytesPerSecond() / 1024, profiler.getCollectionsPerSecond(),
+            profiler.getCollectionMillisPerSecond());
+        lines[PHASES.length + 3] = String.format("input latency avg %.2f ms  max %.2f ms",
+            inputLatency.getAverageNanos() / 1e6, inputLatency.getMaxNanos() / 1e6);
+    }
+}
@@ -0,0 +1,177 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Images baked once per graphics configuration: the background gradient,
+// a sprite for every entity look (including each power-up glow phase), and
+// the HUD. The HUD labels are drawn once; numbers are blitted from pre-rendered
+// digit glyphs, and only the digits that changed since the last frame are
+// redrawn, so the score ticking up costs one or two small blits.
+public class RenderCache {
+    static final Font HUD_FONT = new Font("Monospaced", Font.BOLD, 20);
+    static final int HUD_WIDTH = 400;
+    static final int HUD_HEIGHT = 70;
+
+    private final GraphicsConfiguration configuration;
+    private final BufferedImage background;
+    private final BufferedImage[] playerSprites;
+    private final BufferedImage[] enemySprites;
+    private final BufferedImage[][] powerUpSprites;
+    private final BufferedImage hud;
+    private final Graphics2D hudGraphics;
+    private final HudNumber hudScore;
+    private final HudNumber hudHealth;
+    private static final String GLYPHS = "0123456789-";
+    private final BufferedImage[] glyphs = new BufferedImage[GLYPHS.length()];
+    private final int glyphWidth;
+    private final int glyphHeight;
+
+    public RenderCache(GraphicsConfiguration configuration, Color backgroundTop, Color backgroundBottom) {
+        this.configuration = configuration;
+
+        background = configuration.createCompatibleImage(GameWorld.WIDTH, GameWorld.HEIGHT, Transparency.OPAQUE);
+        Graphics2D g2d = background.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, backgroundTop, 0, GameWorld.HEIGHT, backgroundBottom));
+        g2d.fillRect(0, 0, GameWorld.WIDTH, GameWorld.HEIGHT);
+        g2d.dispose();
+
+        playerSprites = new BufferedImage[2];
+        for (int boost = 0; boost < playerSprites.length; boost++) {
+            playerSprites[boost] = sprite(Player.SIZE, Player.SIZE);
+            g2d = begin(playerSprites[boost]);
+            Player.paint(g2d, 0, 0, boost == 1);
+            g2d.dispose();
+        }
+
+        Enemy.EnemyType[] enemyTypes = Enemy.EnemyType.values();
+        enemySprites = new BufferedImage[enemyTypes.length];
+        for (Enemy.EnemyType type : enemyTypes) {
+            BufferedImage image = sprite(Enemy.SIZE + 10, Enemy.SIZE);
+            g2d = begin(image);
+            Enemy.paint(g2d, type, 0, 0);
+            g2d.dispose();
+            enemySprites[type.ordinal()] = image;
+        }
+
+        PowerUp.PowerUpType[] powerUpTypes = PowerUp.PowerUpType.values();
+        int glowSize = PowerUp.SIZE + 2 * PowerUp.GLOW_MARGIN;
+        powerUpSprites = new BufferedImage[powerUpTypes.length][PowerUp.GLOW_PHASES];
+        for (PowerUp.PowerUpType type : powerUpTypes) {
+            for (int phase = 0; phase < PowerUp.GLOW_PHASES; phase++) {
+                BufferedImage image = sprite(glowSize, glowSize);
+                g2d = begin(image);
+                PowerUp.paint(g2d, type, PowerUp.GLOW_MARGIN, PowerUp.GLOW_MARGIN, phase / (double) (PowerUp.GLOW_PHASES - 1));
+                g2d.dispose();
+                powerUpSprites[type.ordinal()][phase] = image;
+            }
+        }
+
+        hud = sprite(HUD_WIDTH, HUD_HEIGHT);
+        hudGraphics = begin(hud);
+        hudGraphics.setColor(Color.WHITE);
+        hudGraphics.setFont(HUD_FONT);
+        hudGraphics.drawString("Score: ", 20, 30);
+        hudGraphics.drawString("Health: ", 20, 60);
+        // Monospaced, so every digit has the same advance and the numbers sit where drawString would put them
+        FontMetrics metrics = hudGraphics.getFontMetrics();
+        glyphWidth = metrics.charWidth('0');
+        glyphHeight = metrics.getAscent() + metrics.getDescent();
+        for (int i = 0; i < glyphs.length; i++) {
+            glyphs[i] = sprite(glyphWidth, glyphHeight);
+            g2d = begin(glyphs[i]);
+            g2d.setColor(Color.WHITE);
+            g2d.setFont(HUD_FONT);
+            g2d.drawString(GLYPHS.substring(i, i + 1), 0, metrics.getAscent());
+            g2d.dispose();
+        }
+        hudScore = new HudNumber(20 + metrics.stringWidth("Score: "), 30 - metrics.getAscent());
+        hudHealth = new HudNumber(20 + metrics.stringWidth("Health: "), 60 - metrics.getAscent());
+    }
+
+    // One number on the HUD, as glyph indices; -1 marks an empty cell
+    private static final class HudNumber {
+        private static final int MAX_CHARS = 11; // Digits and sign of an int
+        final int x, top;
+        final int[] shown = new int[MAX_CHARS];
+        final int[] next = new int[MAX_CHARS];
+        boolean drawn;
+        int value;
+
+        HudNumber(int x, int top) {
+            this.x = x;
+            this.top = top;
+            java.util.Arrays.fill(shown, -1);
+        }
+    }
+
+    public boolean isFor(GraphicsConfiguration configuration) {
+        return this.configuration == configuration;
+    }
+
+    public BufferedImage getBackground() {
+        return background;
+    }
+
+    public BufferedImage getPlayerSprite(boolean rocketBoost) {
+        return playerSprites[rocketBoost ? 1 : 0];
+    }
+
+    public BufferedImage getEnemySprite(Enemy.EnemyType type) {
+        return enemySprites[type.ordinal()];
+    }
+
+    public BufferedImage getPowerUpSprite(PowerUp.PowerUpType type, int glowPhase) {
+        return powerUpSprites[type.ordinal()][glowPhase];
+    }
+
+    public BufferedImage getHud(int score, int health) {
+        update(hudScore, score);
+        update(hudHealth, health);
+        return hud;
+    }
+
+    // Redraws the cells whose glyph differs from what the HUD shows
+    private void update(HudNumber number, int value) {
+        if (number.drawn && value == number.value) return;
+        number.drawn = true;
+        number.value = value;
+        int[] next = number.next;
+        int length = 0;
+        long rest = Math.abs((long) value);
+        do {
+            next[length++] = (int) (rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        if (value < 0) {
+            next[length++] = GLYPHS.length() - 1;
+        }
+        // Collected lowest digit first; reverse into reading order
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int swap = next[i];
+            next[i] = next[j];
+            next[j] = swap;
+        }
+        java.util.Arrays.fill(next, length, next.length, -1);
+
+        for (int i = 0; i < next.length; i++) {
+            if (next[i] == number.shown[i]) continue;
+            int x = number.x + i * glyphWidth;
+            hudGraphics.setComposite(AlphaComposite.Clear);
+            hudGraphics.fillRect(x, number.top, glyphWidth, glyphHeight);
+            hudGraphics.setComposite(AlphaComposite.SrcOver);
+            if (next[i] >= 0) {
+                hudGraphics.drawImage(glyphs[next[i]], x, number.top, null);
+            }
+            number.shown[i] = next[i];
+        }
+    }
+
+    private BufferedImage sprite(int width, int height) {
+        return configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    private static Graphics2D begin(BufferedImage image) {
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g2d;
+    }
+}
@@ -0,0 +1,145 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+
+// A run reduced to its seed and the ticks on which the player jumped.
+// Binary layout (big endian):
+//   int magic "NRRP", byte version, long seed,
+//   varint ticks, varint score, varint jump count, varint tick deltas...
+public final class Replay {
+    private static final int MAGIC = 0x4E525250;
+    private static final int VERSION = 3; // Also bumped when simulation rules change, as old runs no longer re-simulate
+
+    private final long seed;
+    private final long ticks;
+    private final int score;
+    private final long[] jumpTicks;
+
+    public Replay(long seed, long ticks, int score, long[] jumpTicks) {
+        this.seed = seed;
+        this.ticks = ticks;
+        this.score = score;
+        this.jumpTicks = jumpTicks;
+    }
+
+    // Re-runs the recorded inputs on a fresh world and returns it in its final state
+    public GameWorld simulate() {
+        return simulate(new GameWorld(seed));
+    }
+
+    // Same, reusing a world; it is reset to this replay's seed first
+    public GameWorld simulate(GameWorld world) {
+        world.reset(seed);
+        Pilot pilot = toPilot();
+        while (world.getTick() < ticks && world.getState() == GameWorld.GameState.RUNNING) {
+            world.step(pilot.shouldJump(world));
+        }
+        return world;
+    }
+
+    // Plays the recorded jumps back, for callers stepping a GameWorld(getSeed()) themselves
+    public Pilot toPilot() {
+        return new Pilot() {
+            private int next;
+
+            @Override
+            public boolean shouldJump(GameWorld world) {
+                boolean jump = next < jumpTicks.length && jumpTicks[next] == world.getTick();
+                if (jump) {
+                    next++;
+                }
+                return jump;
+            }
+        };
+    }
+
+    public boolean verify() {
+        GameWorld world = simulate();
+        return world.getTick() == ticks && world.getScore() == score;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 + jumpTicks.length * 2);
+        try {
+            write(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Not thrown by ByteArrayOutputStream
+        }
+        return out.toByteArray();
+    }
+
+    public void write(OutputStream out) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(13);
+        header.putInt(MAGIC).put((byte) VERSION).putLong(seed);
+        out.write(header.array());
+        writeVarLong(out, ticks);
+        writeVarLong(out, score);
+        writeVarLong(out, jumpTicks.length);
+        long previous = 0;
+        for (long jumpTick : jumpTicks) {
+            writeVarLong(out, jumpTick - previous);
+            previous = jumpTick;
+        }
+    }
+
+    public static Replay read(InputStream in) throws IOException {
+        return fromBytes(in.readAllBytes());
+    }
+
+    public static Replay fromBytes(byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a Neon Runner replay");
+            }
+            int version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported replay version " + version);
+            }
+            long seed = buffer.getLong();
+            long ticks = readVarLong(buffer);
+            long score = readVarLong(buffer);
+            long count = readVarLong(buffer);
+            if (score > Integer.MAX_VALUE || count > buffer.remaining()) {
+                throw new IOException("Corrupt replay header");
+            }
+            long[] jumpTicks = new long[(int) count];
+            long previous = 0;
+            for (int i = 0; i < jumpTicks.length; i++) {
+                previous += readVarLong(buffer);
+                jumpTicks[i] = previous;
+            }
+            return new Replay(seed, ticks, (int) score, jumpTicks);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated replay", e);
+        }
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in replay");
+    }
+
+    public long getSeed() { return seed; }
+    public long getTicks() { return ticks; }
+    public int getScore() { return score; }
+    public long[] getJumpTicks() { return jumpTicks; }
+}
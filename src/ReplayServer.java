@@ -0,0 +1,251 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Verifies replays uploaded by kiosks before their scores are accepted:
+//   POST /verify   body is a replay file; 200 if it re-simulates to the
+//                  claimed ticks and score, 422 if not, 400 if unreadable
+//   GET  /metrics  counters, throughput and latency percentiles, in the
+//                  Prometheus text format
+// Connections are served on virtual threads where the JVM has them (21 and
+// later) and on a cached pool otherwise; they only read and answer. The
+// simulation runs headless on a fixed set of workers, each reusing one
+// GameWorld, behind a bounded queue. When the queue is full an upload gets
+// 503 with Retry-After instead of waiting, so a burst costs kiosks a retry
+// rather than every upload its latency. Oversized uploads and replays longer
+// than maxTicks are refused before any simulation. Without
+// -Dsun.net.httpserver.nodelay=true, a JVM-wide setting that Main turns on
+// for --serve-replays, each small response waits out the client's delayed ACK.
+public class ReplayServer implements AutoCloseable {
+    private static final int MAX_BODY = 1 << 20; // A replay is a few bytes per jump
+    private static final double[] QUANTILES = {50, 90, 99};
+
+    private final HttpServer server;
+    private final ExecutorService connections;
+    private final ThreadPoolExecutor workers;
+    private final ThreadLocal<GameWorld> worlds = ThreadLocal.withInitial(() -> new GameWorld(0));
+    private final long maxTicks;
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder rejected = new LongAdder(); // Queue full
+    private final LongAdder ticksSimulated = new LongAdder();
+    private final LongAdder simulationNanos = new LongAdder();
+    // Microseconds; each is guarded by its own lock
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+    private final LatencyHistogram simulationLatency = new LatencyHistogram();
+    private final LatencyHistogram requestLatency = new LatencyHistogram();
+
+    private static final class Result {
+        GameWorld.GameState state;
+        long ticks;
+        int score;
+        long queuedNanos;
+        long simulationNanos;
+    }
+
+    // Port 0 picks a free one, see getPort()
+    public ReplayServer(int port, int workerThreads, int queueCapacity, long maxTicks) throws IOException {
+        this.maxTicks = maxTicks;
+        AtomicInteger workerIds = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), task -> {
+                Thread thread = new Thread(task, "replay-verifier-" + workerIds.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        connections = connectionExecutor();
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(connections);
+        server.createContext("/verify", this::verify);
+        server.createContext("/metrics", this::metrics);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+        connections.shutdownNow();
+    }
+
+    private static ExecutorService connectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "replay-connection");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void verify(HttpExchange exchange) throws IOException {
+        long received = System.nanoTime();
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, error("Use POST"));
+                return;
+            }
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readNBytes(MAX_BODY + 1);
+            }
+            if (body.length > MAX_BODY) {
+                malformed.increment();
+                respond(exchange, 413, error("Replay larger than " + MAX_BODY + " bytes"));
+                return;
+            }
+            Replay replay;
+            try {
+                replay = Replay.fromBytes(body);
+            } catch (IOException e) {
+                malformed.increment();
+                respond(exchange, 400, error(e.getMessage()));
+                return;
+            }
+            if (replay.getTicks() > maxTicks) {
+                malformed.increment();
+                respond(exchange, 400, error("Replay longer than " + maxTicks + " ticks"));
+                return;
+            }
+
+            Future<Result> pending;
+            try {
+                pending = workers.submit(() -> simulate(replay, received));
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, error("Verifier busy"));
+                return;
+            }
+            Result result;
+            try {
+                result = pending.get();
+            } catch (ExecutionException e) {
+                respond(exchange, 500, error(String.valueOf(e.getCause())));
+                return;
+            } catch (InterruptedException e) {
+                pending.cancel(true);
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            boolean ok = result.ticks == replay.getTicks() && result.score == replay.getScore();
+            (ok ? verified : mismatched).increment();
+            String json = String.format("{\"verified\":%b,\"seed\":\"%016x\",\"ticks\":%d,\"score\":%d,"
+                    + "\"simulatedTicks\":%d,\"simulatedScore\":%d,\"state\":\"%s\",\"simulationMicros\":%d}",
+                ok, replay.getSeed(), replay.getTicks(), replay.getScore(),
+                result.ticks, result.score, result.state, result.simulationNanos / 1000);
+            respond(exchange, ok ? 200 : 422, json);
+            record(queueLatency, result.queuedNanos);
+            record(simulationLatency, result.simulationNanos);
+            record(requestLatency, System.nanoTime() - received);
+        }
+    }
+
+    private Result simulate(Replay replay, long received) {
+        long start = System.nanoTime();
+        GameWorld world = replay.simulate(worlds.get());
+        Result result = new Result();
+        result.state = world.getState();
+        result.ticks = world.getTick();
+        result.score = world.getScore();
+        result.queuedNanos = start - received;
+        result.simulationNanos = System.nanoTime() - start;
+        ticksSimulated.add(result.ticks);
+        simulationNanos.add(result.simulationNanos);
+        return result;
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            long done = verified.sum() + mismatched.sum();
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("neonrunner_uptime_seconds %.3f%n", seconds));
+            out.append(String.format("neonrunner_replays_total{result=\"verified\"} %d%n", verified.sum()));
+            out.append(String.format("neonrunner_replays_total{result=\"mismatched\"} %d%n", mismatched.sum()));
+            out.append(String.format("neonrunner_replays_total{result=\"malformed\"} %d%n", malformed.sum()));
+            out.append(String.format("neonrunner_replays_total{result=\"rejected\"} %d%n", rejected.sum()));
+            out.append(String.format("neonrunner_replays_per_second %.2f%n", done / seconds));
+            out.append(String.format("neonrunner_ticks_simulated_total %d%n", ticksSimulated.sum()));
+            // Per busy worker, so it doesn't fall when traffic does
+            long busyNanos = simulationNanos.sum();
+            out.append(String.format("neonrunner_ticks_per_worker_second %.0f%n",
+                busyNanos == 0 ? 0 : ticksSimulated.sum() / (busyNanos / 1e9)));
+            out.append(String.format("neonrunner_workers_busy %d%n", workers.getActiveCount()));
+            out.append(String.format("neonrunner_queue_depth %d%n", workers.getQueue().size()));
+            appendLatency(out, "queue", queueLatency);
+            appendLatency(out, "simulation", simulationLatency);
+            appendLatency(out, "request", requestLatency);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4");
+            byte[] bytes = out.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    private static void appendLatency(StringBuilder out, String stage, LatencyHistogram histogram) {
+        synchronized (histogram) {
+            for (double quantile : QUANTILES) {
+                out.append(String.format("neonrunner_latency_micros{stage=\"%s\",quantile=\"%s\"} %d%n",
+                    stage, quantile / 100, histogram.getPercentile(quantile)));
+            }
+            out.append(String.format("neonrunner_latency_micros_max{stage=\"%s\"} %d%n", stage, histogram.getMax()));
+            out.append(String.format("neonrunner_latency_micros_count{stage=\"%s\"} %d%n", stage, histogram.getCount()));
+        }
+    }
+
+    private static void record(LatencyHistogram histogram, long nanos) {
+        synchronized (histogram) {
+            histogram.record(nanos / 1000);
+        }
+    }
+
+    private static String error(String message) {
+        StringBuilder json = new StringBuilder(message.length() + 16).append("{\"error\":\"");
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c)); // Control characters aren't allowed raw
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append("\"}").toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+// Serves a BatchEnv to a trainer in another process through a memory-mapped
+// file. Nothing is serialized: the trainer writes actions and reads
+// observations, rewards and done flags in place, in the BatchEnv layout.
+//
+// File layout, little endian:
+//   0  int  magic "NRSM"          4  int  version
+//   8  int  worlds               12  int  observation size (floats)
+//   16 long max ticks per episode
+//   24 long request sequence (trainer)   32 long response sequence (server)
+//   40 int  command (trainer)            44 int  status (server)
+//   48 long seed for RESET (trainer)
+//   HEADER_SIZE: actions (1 byte per world), then rewards (float per world),
+//   then done flags (1 byte per world), then observations; each section starts
+//   on an 8-byte boundary.
+//
+// Startup: the server writes the magic last, with release semantics. A trainer
+// polls it with acquire semantics and reads the rest of the header after.
+//
+// Handshake: the trainer fills in actions (or the seed) and the command, then
+// publishes request = previous + 1 with release semantics. The server runs the
+// command, writes its results and publishes response = request. The trainer
+// waits for that before reading, and checks status: STATUS_OK, or
+// STATUS_UNKNOWN_COMMAND when the command wasn't one of RESET, STEP, CLOSE,
+// in which case nothing was run.
+public class SharedMemoryEnv implements AutoCloseable {
+    public static final int MAGIC = 0x4E52534D;
+    public static final int VERSION = 2;
+    public static final int COMMAND_RESET = 1;
+    public static final int COMMAND_STEP = 2;
+    public static final int COMMAND_CLOSE = 3;
+    public static final int STATUS_OK = 0;
+    public static final int STATUS_UNKNOWN_COMMAND = 1;
+
+    static final int WORLDS_OFFSET = 8;
+    static final int OBSERVATION_SIZE_OFFSET = 12;
+    static final int MAX_TICKS_OFFSET = 16;
+    static final int REQUEST_OFFSET = 24;
+    static final int RESPONSE_OFFSET = 32;
+    static final int COMMAND_OFFSET = 40;
+    static final int STATUS_OFFSET = 44;
+    static final int SEED_OFFSET = 48;
+    static final int HEADER_SIZE = 64;
+
+    private static final int SPINS_BEFORE_PARKING = 10_000;
+    private static final long PARK_NANOS = 50_000;
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final BatchEnv env;
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final ByteBuffer actions, rewards, dones, observations;
+
+    public SharedMemoryEnv(Path file, int worlds, long maxTicks, int parallelism) throws IOException {
+        env = new BatchEnv(worlds, maxTicks, parallelism);
+
+        int actionsOffset = HEADER_SIZE;
+        int rewardsOffset = align(actionsOffset + worlds);
+        int donesOffset = align(rewardsOffset + worlds * 4);
+        int observationsOffset = align(donesOffset + worlds);
+        int size = observationsOffset + worlds * BatchEnv.OBSERVATION_SIZE * 4;
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        actions = section(actionsOffset, worlds);
+        rewards = section(rewardsOffset, worlds * 4);
+        dones = section(donesOffset, worlds);
+        observations = section(observationsOffset, worlds * BatchEnv.OBSERVATION_SIZE * 4);
+
+        mapped.putInt(WORLDS_OFFSET, worlds);
+        mapped.putInt(OBSERVATION_SIZE_OFFSET, BatchEnv.OBSERVATION_SIZE);
+        mapped.putLong(MAX_TICKS_OFFSET, maxTicks);
+        mapped.putInt(4, VERSION);
+        mapped.putLong(REQUEST_OFFSET, 0L);
+        mapped.putLong(RESPONSE_OFFSET, 0L);
+        // Magic last, released, so a trainer that acquires it sees a complete header
+        INTS.setRelease(mapped, 0, MAGIC);
+        mapped.force();
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    private ByteBuffer section(int offset, int length) {
+        return mapped.slice(offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Serves requests until the trainer sends CLOSE; returns the number of steps served
+    public long serve() {
+        long served = 0;
+        long handled = (long) LONGS.getAcquire(mapped, RESPONSE_OFFSET);
+        while (true) {
+            long request = awaitRequest(handled);
+            int command = mapped.getInt(COMMAND_OFFSET);
+            int status = STATUS_OK;
+            switch (command) {
+                case COMMAND_RESET -> env.reset(mapped.getLong(SEED_OFFSET), observations);
+                case COMMAND_STEP -> {
+                    env.step(actions, observations, rewards, dones);
+                    served++;
+                }
+                case COMMAND_CLOSE -> {}
+                default -> status = STATUS_UNKNOWN_COMMAND;
+            }
+            // Published by the release store below, with the results
+            mapped.putInt(STATUS_OFFSET, status);
+            handled = request;
+            LONGS.setRelease(mapped, RESPONSE_OFFSET, request);
+            if (command == COMMAND_CLOSE) {
+                return served;
+            }
+        }
+    }
+
+    // Spins briefly for low latency between steps, then backs off to parking
+    private long awaitRequest(long handled) {
+        int spins = 0;
+        while (true) {
+            long request = (long) LONGS.getAcquire(mapped, REQUEST_OFFSET);
+            if (request != handled) {
+                return request;
+            }
+            if (spins < SPINS_BEFORE_PARKING) {
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        env.close();
+        channel.close();
+    }
+}
@@ -0,0 +1,65 @@
+import java.nio.ByteBuffer;
+
+// The last few snapshots of one world, taken every `interval` ticks, for
+// rewinding. Buffers are reused round robin and only reallocated when the
+// world has grown past what they hold, so recording settles at no allocation.
+public class SnapshotRing {
+    private final ByteBuffer[] buffers;
+    private final long[] ticks;
+    private final int interval;
+    private int newest = -1;
+    private int count;
+
+    public SnapshotRing(int capacity, int interval) {
+        buffers = new ByteBuffer[capacity];
+        ticks = new long[capacity];
+        this.interval = interval;
+    }
+
+    // Call between ticks. A tick at or before the newest snapshot means the
+    // world was reset or restored elsewhere, and the older history is dropped
+    public void record(GameWorld world) {
+        long tick = world.getTick();
+        if (tick % interval != 0) return;
+        if (count > 0 && tick <= ticks[newest]) {
+            clear();
+        }
+
+        newest = (newest + 1) % buffers.length;
+        int size = world.snapshotSize();
+        ByteBuffer buffer = buffers[newest];
+        if (buffer == null || buffer.capacity() < size) {
+            buffer = buffers[newest] = ByteBuffer.allocate(size + size / 2);
+        }
+        buffer.clear();
+        world.save(buffer);
+        ticks[newest] = tick;
+        count = Math.min(count + 1, buffers.length);
+    }
+
+    // Restores the newest snapshot at least `ticksBack` ticks old and forgets
+    // the ones after it; false if the history doesn't reach back that far
+    public boolean rewind(GameWorld world, long ticksBack) {
+        long target = world.getTick() - ticksBack;
+        for (int i = 0; i < count; i++) {
+            int slot = Math.floorMod(newest - i, buffers.length);
+            if (ticks[slot] <= target) {
+                buffers[slot].flip();
+                world.restore(buffers[slot]);
+                newest = slot;
+                count -= i;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        newest = -1;
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+}
@@ -1,33 +1,97 @@
 import javax.sound.sampled.*;
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.awt.GraphicsEnvironment;
 
+// Effects are synthesized on first start(), never in headless runs. With
+// -Dneonrunner.soundcache=<file> the PCM is written to that file once and
+// memory-mapped on later launches instead of being synthesized again.
 public class SoundManager {
+    private static final String[] SOUND_NAMES = {"jump", "hit", "powerup", "gameover", "multiplier"};
+    private static final int CACHE_MAGIC = 0x4E52534E; // "NRSN"
+    private static final int CACHE_VERSION = 1; // Bump whenever synthesis changes
+    
     private static Map<String, byte[]> soundCache = new HashMap<>();
-    private static boolean enabled = true;
+    private static Map<String, Integer> soundIds = new HashMap<>();
+    private static volatile AudioMixer mixer;
+    private static volatile boolean enabled = true;
 
-    static {
-        // Generate sound effects using synthesis
-        generateSoundEffects();
+    private static void generateSoundEffects() {
+        String cacheFile = System.getProperty("neonrunner.soundcache");
+        byte[][] sounds = cacheFile != null ? readCache(Paths.get(cacheFile)) : null;
+        if (sounds == null) {
+            // Effects are independent, so each one is synthesized on its own core
+            sounds = Arrays.stream(SOUND_NAMES).parallel().map(SoundManager::synthesize).toArray(byte[][]::new);
+            if (cacheFile != null) {
+                writeCache(Paths.get(cacheFile), sounds);
+            }
+        }
+        for (int i = 0; i < SOUND_NAMES.length; i++) {
+            soundCache.put(SOUND_NAMES[i], sounds[i]);
+        }
     }
 
-    private static void generateSoundEffects() {
-        // Jump sound (rising beep)
-        soundCache.put("jump", generateBeep(400, 800, 100));
-        
-        // Collision sound (short burst)
-        soundCache.put("hit", generateNoise(100));
-        
-        // Power-up collect sound (ascending arpeggio)
-        soundCache.put("powerup", generateArpeggio(new int[]{400, 600, 800}, 50));
+    private static byte[] synthesize(String name) {
+        switch (name) {
+            // Jump sound (rising beep)
+            case "jump": return generateBeep(400, 800, 100);
+            // Collision sound (short burst)
+            case "hit": return generateNoise(100);
+            // Power-up collect sound (ascending arpeggio)
+            case "powerup": return generateArpeggio(new int[]{400, 600, 800}, 50);
+            // Game over sound (descending tone)
+            case "gameover": return generateBeep(800, 200, 500);
+            // Score multiplier sound (short high beep)
+            case "multiplier": return generateBeep(1000, 1000, 50);
+            default: throw new IllegalArgumentException(name);
+        }
+    }
+
+    // Layout: magic, version, count, then a length and PCM bytes per effect in SOUND_NAMES order
+    private static byte[][] readCache(Path file) {
+        if (!Files.isReadable(file)) return null;
         
-        // Game over sound (descending tone)
-        soundCache.put("gameover", generateBeep(800, 200, 500));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != CACHE_MAGIC || buffer.getInt() != CACHE_VERSION
+                    || buffer.getInt() != SOUND_NAMES.length) {
+                return null;
+            }
+            byte[][] sounds = new byte[SOUND_NAMES.length][];
+            for (int i = 0; i < sounds.length; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) return null;
+                sounds[i] = new byte[length];
+                buffer.get(sounds[i]);
+            }
+            return sounds;
+        } catch (IOException | java.nio.BufferUnderflowException e) {
+            return null; // Stale or unreadable; synthesize instead
+        }
+    }
+
+    private static void writeCache(Path file, byte[][] sounds) {
+        int size = 12;
+        for (byte[] sound : sounds) size += 4 + sound.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(CACHE_MAGIC).putInt(CACHE_VERSION).putInt(sounds.length);
+        for (byte[] sound : sounds) {
+            buffer.putInt(sound.length).put(sound);
+        }
         
-        // Score multiplier sound (short high beep)
-        soundCache.put("multiplier", generateBeep(1000, 1000, 50));
+        try {
+            // Written next to the target and moved into place so readers never see half a file
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "sounds", ".tmp");
+            Files.write(temp, buffer.array());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write sound cache: " + e.getMessage());
+        }
     }
 
     private static byte[] generateBeep(double startFreq, double endFreq, int durationMs) {
@@ -48,9 +112,10 @@ public class SoundManager {
         int sampleRate = 44100;
         int numSamples = (durationMs * sampleRate) / 1000;
         byte[] buffer = new byte[numSamples];
+        GameRandom random = new GameRandom(durationMs); // Fixed seed so the effect is identical every launch
         
         for (int i = 0; i < numSamples; i++) {
-            buffer[i] = (byte) (Math.random() * 127);
+            buffer[i] = (byte) (random.nextDouble() * 127);
         }
         
         return buffer;
@@ -73,28 +138,48 @@ public class SoundManager {
         return buffer;
     }
 
-    public static void playSound(String soundName) {
-        if (!enabled || GraphicsEnvironment.isHeadless()) return;
+    // Opens the output line ahead of the first sound so it doesn't stall a frame
+    public static synchronized void start() {
+        if (mixer != null || !enabled || GraphicsEnvironment.isHeadless()) return;
         
+        if (soundCache.isEmpty()) {
+            generateSoundEffects();
+        }
+        String[] names = soundCache.keySet().toArray(new String[0]);
+        byte[][] sounds = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            sounds[i] = soundCache.get(names[i]);
+            soundIds.put(names[i], i);
+        }
         try {
-            byte[] soundData = soundCache.get(soundName);
-            if (soundData == null) return;
-
-            AudioFormat format = new AudioFormat(44100, 8, 1, true, true);
-            AudioInputStream ais = new AudioInputStream(
-                new ByteArrayInputStream(soundData),
-                format,
-                soundData.length
-            );
-
-            Clip clip = AudioSystem.getClip();
-            clip.open(ais);
-            clip.start();
-        } catch (Exception e) {
-            // Silently fail if sound playback fails
+            mixer = new AudioMixer(sounds);
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            // No usable output line; play silently
             enabled = false;
         }
     }
+    
+    public static void playSound(String soundName) {
+        if (!enabled || GraphicsEnvironment.isHeadless()) return;
+        AudioMixer current = mixer;
+        if (current == null) {
+            start();
+            current = mixer;
+            if (current == null) return;
+        }
+        
+        Integer id = soundIds.get(soundName);
+        if (id != null) {
+            current.play(id);
+        }
+    }
+    
+    public static synchronized void shutdown() {
+        if (mixer != null) {
+            mixer.close();
+            mixer = null;
+        }
+    }
 
     public static void setEnabled(boolean enabled) {
         SoundManager.enabled = enabled;
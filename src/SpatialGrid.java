@@ -0,0 +1,121 @@
+import java.util.Arrays;
+
+// Uniform grid broad phase. Items are re-inserted every tick; queries return
+// candidates whose bounds share a cell with the query box, each at most once.
+// Results are held in the grid itself, so queries on one grid must not be nested.
+public class SpatialGrid<T> {
+    private final double cellSize;
+    private final double minX, minY;
+    private final int columns, rows;
+    private final int[] cellHeads;
+
+    // Cell entries form singly linked lists threaded through these arrays
+    private int[] entryItem;
+    private int[] entryNext;
+    private int entryCount;
+
+    private Object[] items;
+    private int[] itemStamps;
+    private int itemCount;
+    private int queryStamp;
+
+    private Object[] results;
+    private int resultCount;
+
+    public SpatialGrid(double cellSize, double minX, double minY, double maxX, double maxY) {
+        this.cellSize = cellSize;
+        this.minX = minX;
+        this.minY = minY;
+        this.columns = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize));
+        this.cellHeads = new int[columns * rows];
+        Arrays.fill(cellHeads, -1);
+
+        entryItem = new int[64];
+        entryNext = new int[64];
+        items = new Object[16];
+        itemStamps = new int[16];
+        results = new Object[16];
+    }
+
+    public void clear() {
+        Arrays.fill(cellHeads, -1);
+        Arrays.fill(items, 0, itemCount, null);
+        entryCount = 0;
+        itemCount = 0;
+    }
+
+    public void insert(T item, double x, double y, double width, double height) {
+        if (itemCount == items.length) {
+            items = Arrays.copyOf(items, itemCount * 2);
+            itemStamps = Arrays.copyOf(itemStamps, itemCount * 2);
+            results = Arrays.copyOf(results, itemCount * 2);
+        }
+        int index = itemCount++;
+        items[index] = item;
+        itemStamps[index] = queryStamp;
+
+        // Pad by a pixel so integer-truncated collision boxes never leave their cells
+        int column0 = column(x - 1), column1 = column(x + width + 1);
+        int row0 = row(y - 1), row1 = row(y + height + 1);
+        for (int row = row0; row <= row1; row++) {
+            for (int column = column0; column <= column1; column++) {
+                if (entryCount == entryItem.length) {
+                    entryItem = Arrays.copyOf(entryItem, entryCount * 2);
+                    entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+                }
+                int cell = row * columns + column;
+                entryItem[entryCount] = index;
+                entryNext[entryCount] = cellHeads[cell];
+                cellHeads[cell] = entryCount++;
+            }
+        }
+    }
+
+    // Returns the number of candidates, readable through get(i) until the next query
+    public int query(double x, double y, double width, double height) {
+        resultCount = 0;
+        if (itemCount == 0) return 0;
+        int stamp = ++queryStamp;
+        if (stamp == 0) {
+            // Stamp wrapped around, forget every item's last visit
+            Arrays.fill(itemStamps, 0);
+            stamp = queryStamp = 1;
+        }
+
+        int column0 = column(x), column1 = column(x + width);
+        int row0 = row(y), row1 = row(y + height);
+        for (int row = row0; row <= row1; row++) {
+            for (int column = column0; column <= column1; column++) {
+                for (int entry = cellHeads[row * columns + column]; entry != -1; entry = entryNext[entry]) {
+                    int index = entryItem[entry];
+                    if (itemStamps[index] != stamp) {
+                        itemStamps[index] = stamp;
+                        results[resultCount++] = items[index];
+                    }
+                }
+            }
+        }
+        return resultCount;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int i) {
+        return (T) results[i];
+    }
+
+    public int size() {
+        return itemCount;
+    }
+
+    // Positions outside the covered area are clamped into the border cells
+    private int column(double x) {
+        int column = (int) Math.floor((x - minX) / cellSize);
+        return Math.max(0, Math.min(columns - 1, column));
+    }
+
+    private int row(double y) {
+        int row = (int) Math.floor((y - minY) / cellSize);
+        return Math.max(0, Math.min(rows - 1, row));
+    }
+}
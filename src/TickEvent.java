@@ -0,0 +1,46 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// One simulation tick for Flight Recorder, only committed while a recording
+// has it enabled: java -XX:StartFlightRecording:filename=run.jfr ... then
+// jfr print --events neonrunner.Tick run.jfr
+@Name("neonrunner.Tick")
+@Label("Tick")
+@Category("Neon Runner")
+@Description("Per-phase timing and entity counts of one simulation tick")
+@StackTrace(false)
+class TickEvent extends jdk.jfr.Event {
+    @Label("Tick")
+    long tick;
+
+    @Label("Player") @Timespan
+    long player;
+
+    @Label("Enemies") @Timespan
+    long enemies;
+
+    @Label("Obstacles") @Timespan
+    long obstacles;
+
+    @Label("Power-ups") @Timespan
+    long powerUps;
+
+    @Label("Collisions") @Timespan
+    long collisions;
+
+    @Label("Spawning") @Timespan
+    long spawning;
+
+    @Label("Enemy count")
+    int enemyCount;
+
+    @Label("Obstacle count")
+    int obstacleCount;
+
+    @Label("Power-up count")
+    int powerUpCount;
+}
@@ -0,0 +1,130 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+// Per-phase timing of the simulation and of rendering. GameWorld reports each
+// phase of a tick while a profiler is attached; endTick() folds them into
+// histograms, samples entity counts, and emits a TickEvent when Flight
+// Recorder is listening. GC and allocation rates of the loop thread are
+// sampled once a second. Phases are written from one thread each: the
+// simulation phases from the loop thread, RENDER from whichever thread paints.
+public class TickProfiler {
+    public enum Phase { PLAYER, ENEMIES, OBSTACLES, POWER_UPS, COLLISIONS, SPAWNING, TICK, RENDER }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final int SIMULATION_PHASES = Phase.TICK.ordinal();
+    private static final long SAMPLE_NANOS = 1_000_000_000L;
+    private static final jdk.jfr.EventType TICK_EVENT = jdk.jfr.EventType.getEventType(TickEvent.class);
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[PHASES.length];
+    private final long[] current = new long[SIMULATION_PHASES];
+    private final GarbageCollectorMXBean[] collectors =
+        ManagementFactory.getGarbageCollectorMXBeans().toArray(new GarbageCollectorMXBean[0]);
+    private final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private volatile int enemyCount, obstacleCount, powerUpCount;
+
+    // Runtime sample state, loop thread only
+    private long sampleStart;
+    private long sampleAllocated = -1;
+    private long sampleCollections;
+    private long sampleCollectionMillis;
+    private volatile double allocationBytesPerSecond;
+    private volatile double collectionsPerSecond;
+    private volatile double collectionMillisPerSecond;
+
+    public TickProfiler() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    void phase(Phase phase, long nanos) {
+        current[phase.ordinal()] = nanos;
+    }
+
+    public void record(Phase phase, long nanos) {
+        histograms[phase.ordinal()].record(nanos);
+    }
+
+    void endTick(GameWorld world) {
+        long total = 0;
+        for (int i = 0; i < SIMULATION_PHASES; i++) {
+            histograms[i].record(current[i]);
+            total += current[i];
+        }
+        histograms[Phase.TICK.ordinal()].record(total);
+        enemyCount = world.getEnemies().size();
+        obstacleCount = world.getObstacles().size();
+        powerUpCount = world.getPowerUps().size();
+
+        if (TICK_EVENT.isEnabled()) {
+            TickEvent event = new TickEvent();
+            event.tick = world.getTick();
+            event.player = current[Phase.PLAYER.ordinal()];
+            event.enemies = current[Phase.ENEMIES.ordinal()];
+            event.obstacles = current[Phase.OBSTACLES.ordinal()];
+            event.powerUps = current[Phase.POWER_UPS.ordinal()];
+            event.collisions = current[Phase.COLLISIONS.ordinal()];
+            event.spawning = current[Phase.SPAWNING.ordinal()];
+            event.enemyCount = enemyCount;
+            event.obstacleCount = obstacleCount;
+            event.powerUpCount = powerUpCount;
+            event.commit();
+        }
+
+        long now = System.nanoTime();
+        if (now - sampleStart >= SAMPLE_NANOS) {
+            sampleRuntime(now);
+        }
+    }
+
+    private void sampleRuntime(long now) {
+        long allocated = threads instanceof com.sun.management.ThreadMXBean
+            ? ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes() : -1;
+        long collections = 0, collectionMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            collections += Math.max(0, collector.getCollectionCount());
+            collectionMillis += Math.max(0, collector.getCollectionTime());
+        }
+        if (sampleAllocated >= 0) {
+            double seconds = (now - sampleStart) / 1e9;
+            allocationBytesPerSecond = allocated >= 0 ? (allocated - sampleAllocated) / seconds : 0;
+            collectionsPerSecond = (collections - sampleCollections) / seconds;
+            collectionMillisPerSecond = (collectionMillis - sampleCollectionMillis) / seconds;
+        }
+        sampleStart = now;
+        sampleAllocated = allocated;
+        sampleCollections = collections;
+        sampleCollectionMillis = collectionMillis;
+    }
+
+    public LatencyHistogram getHistogram(Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    public int getEnemyCount() { return enemyCount; }
+    public int getObstacleCount() { return obstacleCount; }
+    public int getPowerUpCount() { return powerUpCount; }
+    public double getAllocationBytesPerSecond() { return allocationBytesPerSecond; }
+    public double getCollectionsPerSecond() { return collectionsPerSecond; }
+    public double getCollectionMillisPerSecond() { return collectionMillisPerSecond; }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Phase phase : PHASES) {
+            LatencyHistogram histogram = getHistogram(phase);
+            text.append(String.format("%-10s n=%d p50=%.1fus p99=%.1fus max=%.1fus%n", phase.name().toLowerCase(),
+                histogram.getCount(), histogram.getPercentile(50) / 1e3, histogram.getPercentile(99) / 1e3,
+                histogram.getMax() / 1e3));
+        }
+        return text.append(String.format("alloc %.1f KB/s, gc %.1f/s (%.1f ms/s)",
+            allocationBytesPerSecond / 1024, collectionsPerSecond, collectionMillisPerSecond)).toString();
+    }
+}
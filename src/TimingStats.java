@@ -0,0 +1,36 @@
+public class TimingStats {
+    private final String name;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private volatile double averageNanos; // Exponential moving average
+
+    public TimingStats(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long nanos) {
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        averageNanos = count == 1 ? nanos : averageNanos + (nanos - averageNanos) * 0.05;
+    }
+
+    public synchronized void reset() {
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        averageNanos = 0;
+    }
+
+    public synchronized long getCount() { return count; }
+    public synchronized long getMaxNanos() { return maxNanos; }
+    public synchronized double getMeanNanos() { return count == 0 ? 0 : totalNanos / (double) count; }
+    public double getAverageNanos() { return averageNanos; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: n=%d mean=%.3fms avg=%.3fms max=%.3fms",
+            name, count, getMeanNanos() / 1e6, averageNanos / 1e6, maxNanos / 1e6);
+    }
+}
@@ -0,0 +1,153 @@
+import java.awt.*;
+
+// Draws a GameWorld with Java2D. Shared by the Swing panel and offscreen users
+public class WorldRenderer {
+    private static final int WIDTH = GameWorld.WIDTH;
+    private static final int HEIGHT = GameWorld.HEIGHT;
+    
+    private static final String GAME_OVER_TEXT = "GAME OVER - Click to Restart";
+    
+    private final Color backgroundColor1;
+    private final Color backgroundColor2;
+    private boolean cached;
+    private RenderCache cache;
+    private int gameOverWidth = -1;
+    
+    public WorldRenderer() {
+        backgroundColor1 = new Color(0, 0, 40);
+        backgroundColor2 = new Color(0, 0, 80);
+        cached = true;
+    }
+    
+    // Immediate mode draws every shape with Java2D each frame and is kept as the reference look
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+    
+    public void render(Graphics2D g2d, GameWorld world, double alpha) {
+        if (cached) {
+            renderCached(g2d, world, alpha);
+        } else {
+            renderImmediate(g2d, world, alpha);
+        }
+    }
+    
+    // Marks everything render() will draw this frame, padded for antialiased edges
+    public void markDirty(DirtyRegions regions, GameWorld world, double alpha) {
+        EntityStore<Obstacle> obstacles = world.getObstacles();
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            regions.mark(obstacle.getRenderX(alpha) - 1, (int)obstacle.getY() - 1, obstacle.getWidth() + 2, obstacle.getHeight() + 2);
+        }
+        
+        int glowSize = PowerUp.SIZE + 2 * PowerUp.GLOW_MARGIN;
+        EntityStore<PowerUp> powerUps = world.getPowerUps();
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
+            regions.mark(powerUp.getRenderX(alpha) - PowerUp.GLOW_MARGIN - 1, (int)powerUp.getY() - PowerUp.GLOW_MARGIN - 1, glowSize + 2, glowSize + 2);
+        }
+        
+        EntityStore<Enemy> enemies = world.getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            regions.mark(enemy.getRenderX(alpha) - 1, enemy.getRenderY(alpha) - 1, Enemy.SIZE + 12, Enemy.SIZE + 2);
+        }
+        
+        // Marked even while flashing invisible so the last visible frame gets erased
+        Player player = world.getPlayer();
+        regions.mark((int)player.getX() - 1, player.getRenderY(alpha) - 1, Player.SIZE + 2, Player.SIZE + 2);
+        
+        regions.mark(0, 0, RenderCache.HUD_WIDTH, RenderCache.HUD_HEIGHT);
+    }
+    
+    private void renderCached(Graphics2D g2d, GameWorld world, double alpha) {
+        GraphicsConfiguration configuration = g2d.getDeviceConfiguration();
+        if (cache == null || !cache.isFor(configuration)) {
+            cache = new RenderCache(configuration, backgroundColor1, backgroundColor2);
+        }
+        // Sprites already carry their antialiased edges; plain blits are cheaper without it
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        g2d.drawImage(cache.getBackground(), 0, 0, null);
+        
+        g2d.setColor(Color.GRAY);
+        EntityStore<Obstacle> obstacles = world.getObstacles();
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            g2d.fillRect(obstacle.getRenderX(alpha), (int)obstacle.getY(), obstacle.getWidth(), obstacle.getHeight());
+        }
+        
+        EntityStore<PowerUp> powerUps = world.getPowerUps();
+        for (int i = 0; i < powerUps.size(); i++) {
+            PowerUp powerUp = powerUps.get(i);
+            g2d.drawImage(cache.getPowerUpSprite(powerUp.getType(), powerUp.getGlowPhase()),
+                powerUp.getRenderX(alpha) - PowerUp.GLOW_MARGIN, (int)powerUp.getY() - PowerUp.GLOW_MARGIN, null);
+        }
+        
+        EntityStore<Enemy> enemies = world.getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            Enemy enemy = enemies.get(i);
+            g2d.drawImage(cache.getEnemySprite(enemy.getType()), enemy.getRenderX(alpha), enemy.getRenderY(alpha), null);
+        }
+        
+        Player player = world.getPlayer();
+        if (player.isVisible()) {
+            g2d.drawImage(cache.getPlayerSprite(player.hasRocketBoost()), (int)player.getX(), player.getRenderY(alpha), null);
+        }
+        
+        g2d.drawImage(cache.getHud(world.getScore(), player.getHealth()), 0, 0, null);
+        
+        if (world.getState() == GameWorld.GameState.GAME_OVER) {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setColor(Color.WHITE);
+            g2d.setFont(RenderCache.HUD_FONT);
+            if (gameOverWidth < 0) {
+                gameOverWidth = g2d.getFontMetrics().stringWidth(GAME_OVER_TEXT);
+            }
+            g2d.drawString(GAME_OVER_TEXT, (WIDTH - gameOverWidth) / 2, HEIGHT / 2);
+        }
+    }
+    
+    private void renderImmediate(Graphics2D g2d, GameWorld world, double alpha) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        // Draw background
+        GradientPaint gradient = new GradientPaint(
+            0, 0, backgroundColor1,
+            0, HEIGHT, backgroundColor2
+        );
+        g2d.setPaint(gradient);
+        g2d.fillRect(0, 0, WIDTH, HEIGHT);
+        
+        // Draw game elements
+        EntityStore<Obstacle> obstacles = world.getObstacles();
+        for (int i = 0; i < obstacles.size(); i++) {
+            obstacles.get(i).render(g2d, alpha);
+        }
+        
+        EntityStore<PowerUp> powerUps = world.getPowerUps();
+        for (int i = 0; i < powerUps.size(); i++) {
+            powerUps.get(i).render(g2d, alpha);
+        }
+        
+        EntityStore<Enemy> enemies = world.getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            enemies.get(i).render(g2d, alpha);
+        }
+        
+        Player player = world.getPlayer();
+        player.render(g2d, alpha);
+        
+        // Draw UI
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(new Font("Monospaced", Font.BOLD, 20));
+        g2d.drawString("Score: " + world.getScore(), 20, 30);
+        g2d.drawString("Health: " + player.getHealth(), 20, 60);
+        
+        if (world.getState() == GameWorld.GameState.GAME_OVER) {
+            String gameOver = GAME_OVER_TEXT;
+            FontMetrics fm = g2d.getFontMetrics();
+            int textWidth = fm.stringWidth(gameOver);
+            g2d.drawString(gameOver, (WIDTH - textWidth) / 2, HEIGHT / 2);
+        }
+    }
+}
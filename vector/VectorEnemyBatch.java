@@ -0,0 +1,63 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// EnemyBatch with the bulk passes on jdk.incubator.vector. Per-type behaviour
+// is selected with lane masks instead of branches; leftover rows past the last
+// full vector go through the scalar code. Built by the "vector" profile and
+// only usable with --add-modules jdk.incubator.vector.
+public class VectorEnemyBatch extends EnemyBatch {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double BOTTOM = GameWorld.HEIGHT - Enemy.SIZE;
+
+    @Override
+    public String getName() {
+        return "vector x" + SPECIES.length();
+    }
+
+    @Override
+    protected void advance(EntityStore<?> s, int count) {
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, s.x, i);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, s.y, i);
+            x.intoArray(s.previousX, i);
+            y.intoArray(s.previousY, i);
+            x.add(DoubleVector.fromArray(SPECIES, s.velocityX, i)).intoArray(nextX, i);
+            y.add(DoubleVector.fromArray(SPECIES, s.velocityY, i)).intoArray(nextY, i);
+        }
+        advance(s, i, count);
+    }
+
+    @Override
+    protected void resolve(EntityStore<?> s, int count) {
+        double limit = Enemy.BASE_SPEED;
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            VectorMask<Double> hit = VectorMask.fromArray(SPECIES, collided, i);
+            VectorMask<Double> moved = hit.not();
+            VectorMask<Double> drone = VectorMask.fromArray(SPECIES, drones, i);
+            VectorMask<Double> turret = VectorMask.fromArray(SPECIES, turrets, i);
+
+            DoubleVector y = DoubleVector.fromArray(SPECIES, s.y, i).blend(DoubleVector.fromArray(SPECIES, nextY, i), moved);
+            DoubleVector.fromArray(SPECIES, s.x, i).blend(DoubleVector.fromArray(SPECIES, nextX, i), moved).intoArray(s.x, i);
+            y.intoArray(s.y, i);
+
+            VectorMask<Double> atEdge = y.compare(VectorOperators.LE, 0).or(y.compare(VectorOperators.GE, BOTTOM));
+            VectorMask<Double> bounce = drone.and(moved).and(atEdge);
+            VectorMask<Double> stop = hit.and(turret);
+
+            DoubleVector velocityX = DoubleVector.fromArray(SPECIES, s.velocityX, i);
+            DoubleVector velocityY = DoubleVector.fromArray(SPECIES, s.velocityY, i);
+            velocityX = velocityX.blend(velocityX.mul(-0.5), hit).blend(0, stop);
+            velocityY = velocityY.blend(velocityY.neg(), bounce).blend(velocityY.mul(-0.5), hit).blend(0, stop);
+
+            velocityX.min(limit).max(-limit).intoArray(s.velocityX, i);
+            velocityY.min(limit).max(-limit).intoArray(s.velocityY, i);
+        }
+        resolve(s, i, count);
+    }
+}